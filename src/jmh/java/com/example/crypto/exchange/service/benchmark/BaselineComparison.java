@@ -0,0 +1,81 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the stored baseline and exits non-zero when any benchmark got slower, or
+ * allocates more per operation, than the baseline by more than the given tolerance.
+ * <p>
+ * Usage: {@code BaselineComparison <baseline.json> <result.json> [tolerance]}, where tolerance is a fraction such
+ * as {@code 0.25}. Benchmarks present in only one of the files are reported but never fail the check.
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW   %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            boolean higherIsBetter = after.path("mode").asText().equals("thrpt");
+            regressions += compare(entry.getKey(), after.path("primaryMetric").path("scoreUnit").asText(),
+                    before.path("primaryMetric").path("score").asDouble(),
+                    after.path("primaryMetric").path("score").asDouble(), higherIsBetter, tolerance);
+
+            JsonNode allocationBefore = before.path("secondaryMetrics").path(ALLOCATION);
+            JsonNode allocationAfter = after.path("secondaryMetrics").path(ALLOCATION);
+            if (!allocationBefore.isMissingNode() && !allocationAfter.isMissingNode()) {
+                regressions += compare(entry.getKey(), "B/op", allocationBefore.path("score").asDouble(),
+                        allocationAfter.path("score").asDouble(), false, tolerance);
+            }
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("GONE  %s%n", key));
+
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, tolerance * 100);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static int compare(String benchmark, String unit, double before, double after, boolean higherIsBetter,
+                               double tolerance) {
+        double change = before == 0 ? 0 : (after - before) / before;
+        boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+        System.out.printf("%s %s  %.3f -> %.3f %s (%+.1f%%)%n",
+                regressed ? "WORSE" : "ok   ", benchmark, before, after, unit, change * 100);
+        return regressed ? 1 : 0;
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            results.put(result.path("benchmark").asText() + params, result);
+        }
+        return results;
+    }
+}
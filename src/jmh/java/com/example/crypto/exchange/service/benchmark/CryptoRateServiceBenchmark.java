@@ -0,0 +1,103 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.CryptoRateServiceFixture;
+import com.example.crypto.exchange.service.service.RateCache;
+import com.example.crypto.exchange.service.service.RateHistory;
+import com.example.crypto.exchange.service.service.RateSnapshotHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path cost of {@link CryptoRateService} against a WebClient whose exchange function answers from memory.
+ * {@code path} selects where rates come from: the poller snapshot, a warm rate cache, or a decoded upstream
+ * response on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CryptoRateServiceBenchmark {
+
+    private static final String[] SYMBOLS = {"BTC", "ETH", "USD", "USDT"};
+    private static final String BODY = "{"
+            + "\"bitcoin\":{\"btc\":1.0,\"eth\":18.25,\"usd\":67187.33,\"usdt\":67150.12},"
+            + "\"ethereum\":{\"btc\":0.0548,\"eth\":1.0,\"usd\":3681.4,\"usdt\":3679.88},"
+            + "\"usd\":{\"btc\":0.0000149,\"eth\":0.000272,\"usd\":1.0,\"usdt\":0.9995},"
+            + "\"tether\":{\"btc\":0.0000149,\"eth\":0.000272,\"usd\":1.0005,\"usdt\":1.0}}";
+
+    public enum Path { SNAPSHOT, CACHE, UPSTREAM }
+
+    @Param({"SNAPSHOT", "CACHE", "UPSTREAM"})
+    Path path;
+
+    @Param({"1", "4", "16"})
+    int targets;
+
+    private CryptoRateService cryptoRateService;
+    private List<String> toSymbols;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://coingecko.stub/api/v3/simple/price")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(BODY)
+                        .build()))
+                .build();
+
+        RateSnapshotHolder snapshotHolder = new RateSnapshotHolder(Duration.ofHours(1), new RateHistory(60, 12, 24));
+        RateCache rateCache = new RateCache(Duration.ofHours(1), Duration.ZERO, path == Path.CACHE ? 256 : 0);
+        cryptoRateService = CryptoRateServiceFixture.upstream(webClient)
+                .rateCache(rateCache)
+                .snapshotHolder(snapshotHolder)
+                .build();
+
+        if (path == Path.SNAPSHOT) {
+            snapshotHolder.publish(cryptoRateService.fetchAllRates(
+                    new String[]{"bitcoin", "ethereum", "usd", "tether"},
+                    new String[]{"btc", "eth", "usd", "usdt"}).block(), Instant.now());
+        }
+
+        toSymbols = new ArrayList<>();
+        for (int i = 0; i < targets; i++) {
+            toSymbols.add(SYMBOLS[i % SYMBOLS.length]);
+        }
+        amount = new BigDecimal("1234.5678");
+
+        getFilteredRates();
+        exchangeCurrencies();
+    }
+
+    @Benchmark
+    public CurrencyRatesResponse getFilteredRates() {
+        return cryptoRateService.getFilteredRates("BTC", toSymbols);
+    }
+
+    @Benchmark
+    public ExchangeResponse exchangeCurrencies() {
+        return cryptoRateService.exchangeCurrencies("BTC", toSymbols, amount);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.example.crypto.exchange.service.mapper.CurrencyMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symbol resolution for a target list as sent by clients, in both upper and lower case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrencyMapperBenchmark {
+
+    private static final String[] SYMBOLS = {"BTC", "eth", "USD", "usdt"};
+
+    @Param({"1", "4", "16"})
+    int targets;
+
+    private String[] symbols;
+
+    @Setup
+    public void setUp() {
+        symbols = new String[targets];
+        for (int i = 0; i < targets; i++) {
+            symbols[i] = SYMBOLS[i % SYMBOLS.length];
+        }
+    }
+
+    @Benchmark
+    public void mapSymbolToId(Blackhole blackhole) {
+        for (String symbol : symbols) {
+            blackhole.consume(CurrencyMapper.mapSymbolToId(symbol, false));
+        }
+    }
+}
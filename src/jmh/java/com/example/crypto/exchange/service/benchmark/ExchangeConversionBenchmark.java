@@ -0,0 +1,93 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.service.ConversionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the previous per-target {@code CompletableFuture} exchange calculation with {@link ConversionEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExchangeConversionBenchmark {
+
+    private static final BigDecimal FEE_PERCENTAGE = new BigDecimal("0.01");
+
+    @Param({"1", "4", "32"})
+    int targets;
+
+    private final ConversionEngine conversionEngine = new ConversionEngine(8, RoundingMode.HALF_EVEN);
+
+    private BigDecimal amount;
+    private List<String> toSymbols;
+    private Map<String, BigDecimal> rates;
+
+    @Setup
+    public void setUp() {
+        amount = new BigDecimal("1234.5678");
+        toSymbols = new ArrayList<>();
+        rates = new HashMap<>();
+        for (int i = 0; i < targets; i++) {
+            String symbol = "C" + i;
+            toSymbols.add(symbol);
+            rates.put(symbol, BigDecimal.valueOf(20000.0 / (i + 1)));
+        }
+    }
+
+    @Benchmark
+    public Map<String, ExchangeResponse.ExchangeResult> completableFuturePerTarget() {
+        List<CompletableFuture<Map.Entry<String, ExchangeResponse.ExchangeResult>>> futures = new ArrayList<>();
+        for (String toSymbol : toSymbols) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                BigDecimal rate = rates.get(toSymbol);
+                if (rate == null) {
+                    return null;
+                }
+                BigDecimal fee = amount.multiply(FEE_PERCENTAGE);
+                BigDecimal amountAfterFee = amount.subtract(fee);
+                BigDecimal result = amountAfterFee.multiply(rate);
+                return Map.entry(toSymbol, new ExchangeResponse.ExchangeResult(rate, amount, result, fee));
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Benchmark
+    public Map<String, ExchangeResponse.ExchangeResult> conversionEngine() {
+        ConversionEngine.Quote quote = conversionEngine.quote(amount, FEE_PERCENTAGE);
+        Map<String, ExchangeResponse.ExchangeResult> conversions = new LinkedHashMap<>(toSymbols.size() * 2);
+        for (String toSymbol : toSymbols) {
+            BigDecimal rate = rates.get(toSymbol);
+            if (rate != null) {
+                conversions.put(toSymbol, conversionEngine.convert(quote, rate));
+            }
+        }
+        return conversions;
+    }
+}
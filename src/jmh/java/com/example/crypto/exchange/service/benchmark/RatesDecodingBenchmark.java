@@ -0,0 +1,80 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.example.crypto.exchange.service.service.CoinGeckoRatesDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the previous {@code bodyToMono(Map.class)} decoding of a CoinGecko price response with
+ * {@link CoinGeckoRatesDecoder}. Run with {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RatesDecodingBenchmark {
+
+    @Param({"4", "250"})
+    int coins;
+
+    @Param({"4", "32"})
+    int targets;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String[] sources;
+    private String[] vsCurrencies;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        sources = new String[coins];
+        vsCurrencies = new String[targets];
+        for (int t = 0; t < targets; t++) {
+            vsCurrencies[t] = "c" + t;
+        }
+
+        StringBuilder json = new StringBuilder("{");
+        for (int c = 0; c < coins; c++) {
+            sources[c] = "coin-" + c;
+            json.append(c == 0 ? "" : ",").append('"').append(sources[c]).append("\":{");
+            for (int t = 0; t < targets; t++) {
+                json.append(t == 0 ? "" : ",").append('"').append(vsCurrencies[t]).append("\":")
+                        .append(20000.0 / (c + t + 1));
+            }
+            json.append('}');
+        }
+        body = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, BigDecimal>> genericMap() throws IOException {
+        Map<String, Map<String, Object>> response = objectMapper.readValue(body, Map.class);
+        Map<String, Map<String, BigDecimal>> result = new HashMap<>();
+        response.forEach((source, quotes) -> result.put(source, quotes.entrySet().stream()
+                .collect(Collectors.toMap(
+                        e -> e.getKey().toUpperCase(),
+                        e -> BigDecimal.valueOf(((Number) e.getValue()).doubleValue())))));
+        return result;
+    }
+
+    @Benchmark
+    public Map<String, Map<String, BigDecimal>> streamingDecoder() {
+        return CoinGeckoRatesDecoder.decode(body, sources, vsCurrencies);
+    }
+}
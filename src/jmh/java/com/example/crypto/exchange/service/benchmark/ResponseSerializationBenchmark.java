@@ -0,0 +1,62 @@
+package com.example.crypto.exchange.service.benchmark;
+
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies with the same ObjectMapper defaults Spring Boot applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "4", "16"})
+    int targets;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private CurrencyRatesResponse ratesResponse;
+    private ExchangeResponse exchangeResponse;
+
+    @Setup
+    public void setUp() {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        Map<String, ExchangeResponse.ExchangeResult> conversions = new LinkedHashMap<>();
+        BigDecimal amount = new BigDecimal("1234.5678");
+        for (int i = 0; i < targets; i++) {
+            BigDecimal rate = BigDecimal.valueOf(67187.33 / (i + 1));
+            rates.put("C" + i, rate);
+            conversions.put("C" + i, new ExchangeResponse.ExchangeResult(rate, amount,
+                    amount.multiply(rate), new BigDecimal("12.34567800")));
+        }
+        ratesResponse = new CurrencyRatesResponse("BTC", rates);
+        exchangeResponse = new ExchangeResponse("BTC", conversions);
+    }
+
+    @Benchmark
+    public byte[] currencyRatesResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ratesResponse);
+    }
+
+    @Benchmark
+    public byte[] exchangeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(exchangeResponse);
+    }
+}
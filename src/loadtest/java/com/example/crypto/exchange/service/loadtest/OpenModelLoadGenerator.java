@@ -0,0 +1,100 @@
+package com.example.crypto.exchange.service.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate no matter how many are still outstanding.
+ * <p>
+ * Latency is measured from the moment a request was scheduled to start, not from when it was actually sent, so a
+ * server that stalls shows up as latency instead of quietly lowering the offered load (coordinated omission).
+ */
+public class OpenModelLoadGenerator {
+
+    private final HttpClient client;
+
+    public OpenModelLoadGenerator(HttpClient client) {
+        this.client = client;
+    }
+
+    public Result run(String scenario, double ratePerSecond, Duration duration, Supplier<HttpRequest> requests,
+                      Duration drainTimeout) throws InterruptedException {
+        int count = (int) Math.max(1, Math.round(ratePerSecond * duration.toNanos() / 1e9));
+        double intervalNanos = 1e9 / ratePerSecond;
+        Recorder recorder = new Recorder(3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        LongAccumulator lastCompletion = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        CountDownLatch outstanding = new CountDownLatch(count);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            client.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long now = System.nanoTime();
+                        recorder.recordValue(now - intended);
+                        lastCompletion.accumulate(now);
+                        if (error != null) {
+                            failures.increment();
+                        } else {
+                            statuses.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                        }
+                        outstanding.countDown();
+                    });
+        }
+        outstanding.await(drainTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        Histogram latencies = recorder.getIntervalHistogram();
+        long elapsed = Math.max(lastCompletion.get(), start + 1) - start;
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, adder) -> statusCounts.put(status, adder.sum()));
+        return new Result(scenario, ratePerSecond, count, latencies.getTotalCount(),
+                latencies.getTotalCount() / (elapsed / 1e9), latencies, statusCounts, failures.sum());
+    }
+
+    public record Result(String scenario, double targetRate, long sent, long completed, double throughput,
+                         Histogram latencies, Map<Integer, Long> statuses, long failures) {
+
+        public static final String CSV_HEADER =
+                "scenario,target_rps,sent,completed,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms,statuses,failures";
+
+        public double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%.0f,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%s,%d",
+                    scenario, targetRate, sent, completed, throughput, percentileMillis(50), percentileMillis(99),
+                    percentileMillis(99.9), latencies.getMaxValue() / 1e6,
+                    statuses.toString().replace(", ", " ").replace("{", "").replace("}", ""), failures);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-9s %8.0f %8d %9d %10.1f %9.2f %9.2f %9.2f %9.2f  %s failures=%d",
+                    scenario, targetRate, sent, completed, throughput, percentileMillis(50), percentileMillis(99),
+                    percentileMillis(99.9), latencies.getMaxValue() / 1e6, statuses, failures);
+        }
+    }
+}
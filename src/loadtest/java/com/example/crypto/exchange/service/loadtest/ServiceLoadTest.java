@@ -0,0 +1,158 @@
+package com.example.crypto.exchange.service.loadtest;
+
+import com.example.crypto.exchange.service.CryptoExchangeServiceApplication;
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots the service against a local CoinGecko stub and offers {@code GET /currencies/{currency}} and
+ * {@code POST /currencies/exchange} traffic at one or more open-model arrival rates. Runs offline; every knob is a
+ * system property so results of two releases can be compared under identical conditions:
+ * <pre>
+ * mvn -Ploadtest test -Dload.rates=100,400 -Dload.duration=30s -Dload.stub.errorRate=0.05
+ * </pre>
+ * A summary is printed and written to {@code target/loadtest/results.csv}.
+ */
+@Tag("load")
+class ServiceLoadTest {
+
+    private static final String[] SYMBOLS = {"BTC", "ETH", "USD", "USDT"};
+
+    private final double[] rates = Arrays.stream(setting("load.rates", "50,200").split(","))
+            .mapToDouble(Double::parseDouble)
+            .toArray();
+    private final Duration duration = duration("load.duration", "10s");
+    private final Duration warmup = duration("load.warmup", "3s");
+    private final double exchangeShare = Double.parseDouble(setting("load.exchangeShare", "0.3"));
+
+    @Test
+    void reportsThroughputAndLatencyPercentiles() throws Exception {
+        try (CoinGeckoStubServer stub = CoinGeckoStubServer.start()
+                .withLatency(duration("load.stub.latency", "50ms"))
+                .withJitter(duration("load.stub.jitter", "50ms"))
+                .withErrorRate(Double.parseDouble(setting("load.stub.errorRate", "0.01")))
+                .withRateLimitRate(Double.parseDouble(setting("load.stub.rateLimitRate", "0.01")), Duration.ofSeconds(1))) {
+            List<String> args = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.main.web-application-type=" + setting("load.webApplicationType", "servlet"),
+                    "--app.cryptoApi.baseUrl=" + stub.baseUrl(),
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.example.crypto.exchange.service=WARN"));
+            String appArgs = setting("load.appArgs", "");
+            if (!appArgs.isBlank()) {
+                args.addAll(Arrays.asList(appArgs.split(",")));
+            }
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(CryptoExchangeServiceApplication.class)
+                    .run(args.toArray(String[]::new));
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<OpenModelLoadGenerator.Result> results = drive(port);
+                report(results);
+                results.forEach(result -> assertEquals(result.sent(), result.completed(),
+                        result.scenario() + " did not complete every request"));
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private List<OpenModelLoadGenerator.Result> drive(int port) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(client);
+        if (!warmup.isZero()) {
+            runPhase(generator, port, rates[0], warmup);
+        }
+        List<OpenModelLoadGenerator.Result> results = new ArrayList<>();
+        for (double rate : rates) {
+            results.addAll(runPhase(generator, port, rate, duration));
+        }
+        return results;
+    }
+
+    private List<OpenModelLoadGenerator.Result> runPhase(OpenModelLoadGenerator generator, int port, double rate,
+                                                         Duration duration) throws Exception {
+        Duration drain = duration.plusSeconds(30);
+        CompletableFuture<OpenModelLoadGenerator.Result> get = CompletableFuture.supplyAsync(() ->
+                run(generator, "rates", rate * (1 - exchangeShare), duration, () -> rateRequest(port), drain));
+        CompletableFuture<OpenModelLoadGenerator.Result> post = CompletableFuture.supplyAsync(() ->
+                run(generator, "exchange", rate * exchangeShare, duration, () -> exchangeRequest(port), drain));
+        return List.of(get.get(), post.get());
+    }
+
+    private static OpenModelLoadGenerator.Result run(OpenModelLoadGenerator generator, String scenario, double rate,
+                                                     Duration duration, Supplier<HttpRequest> requests, Duration drain) {
+        try {
+            return generator.run(scenario, rate, duration, requests, drain);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest rateRequest(int port) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String source = SYMBOLS[random.nextInt(SYMBOLS.length)];
+        String filter = SYMBOLS[random.nextInt(SYMBOLS.length)];
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/currencies/" + source
+                        + "?filter%5B%5D=" + filter))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private static HttpRequest exchangeRequest(int port) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = String.format("{\"from\":\"%s\",\"to\":[\"%s\",\"%s\"],\"amount\":%d}",
+                SYMBOLS[random.nextInt(SYMBOLS.length)], SYMBOLS[random.nextInt(SYMBOLS.length)],
+                SYMBOLS[random.nextInt(SYMBOLS.length)], 1 + random.nextInt(10_000));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/currencies/exchange"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void report(List<OpenModelLoadGenerator.Result> results) throws Exception {
+        System.out.printf("%-9s %8s %8s %9s %10s %9s %9s %9s %9s  %s%n",
+                "scenario", "target/s", "sent", "completed", "achieved/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        results.forEach(System.out::println);
+
+        Path csv = Path.of("target", "loadtest", "results.csv");
+        Files.createDirectories(csv.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(OpenModelLoadGenerator.Result.CSV_HEADER);
+        results.forEach(result -> lines.add(result.toCsv()));
+        Files.write(csv, lines);
+    }
+
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(setting(name, defaultValue));
+    }
+}
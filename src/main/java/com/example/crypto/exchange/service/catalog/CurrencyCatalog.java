@@ -0,0 +1,172 @@
+package com.example.crypto.exchange.service.catalog;
+
+import com.example.crypto.exchange.service.service.UpstreamScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coins and vs-currencies known to the service, loaded at runtime and reloaded on a schedule.
+ * <p>
+ * The catalog comes from one of three sources: the {@link com.example.crypto.exchange.service.model.SupportedCurrency}
+ * values only ({@code builtin}), a JSON file ({@code file}) or CoinGecko's coin list and supported vs-currencies
+ * ({@code coingecko}). A reload builds a complete new {@link CurrencyIndex} and swaps it in with one volatile write,
+ * so readers never wait and never see a partial catalog. A failed reload keeps the current index. Scheduled reloads
+ * run on a bounded-elastic worker rather than the shared scheduling thread, so a slow download never delays the
+ * rate poller. The first load starts right after startup; until it finishes only the supported currencies are known.
+ */
+@Component
+@Slf4j
+public class CurrencyCatalog {
+
+    private static final int MAX_CATALOG_BYTES = 32 * 1024 * 1024;
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Callable<CurrencyIndex> loader;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile CurrencyIndex index = CurrencyIndex.builtin();
+
+    @Autowired
+    public CurrencyCatalog(@Value("${app.cryptoApi.catalog.source:builtin}") String source,
+                           @Value("${app.cryptoApi.catalog.file:data/catalog.json}") Path file,
+                           @Value("${app.cryptoApi.catalog.baseUrl:https://api.coingecko.com/api/v3}") String baseUrl,
+                           ObjectMapper objectMapper, WebClient.Builder webClientBuilder,
+                           UpstreamScheduler scheduler) {
+        this(switch (source.toLowerCase(Locale.ROOT)) {
+            case "builtin" -> CurrencyIndex::builtin;
+            case "file" -> new FileLoader(file, objectMapper);
+            case "coingecko" -> new CoinGeckoLoader(webClientBuilder.clone()
+                    .baseUrl(baseUrl)
+                    .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_CATALOG_BYTES))
+                    .build(), scheduler);
+            default -> throw new IllegalArgumentException("Unknown currency catalog source: " + source);
+        });
+    }
+
+    CurrencyCatalog(Callable<CurrencyIndex> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Catalog of the supported currencies only, never reloaded.
+     */
+    public static CurrencyCatalog builtin() {
+        return new CurrencyCatalog(CurrencyIndex::builtin);
+    }
+
+    public CurrencyIndex current() {
+        return index;
+    }
+
+    /**
+     * Starts a reload in the background unless one is still running.
+     */
+    @Scheduled(fixedDelayString = "${app.cryptoApi.catalog.refreshInterval:PT6H}")
+    public void scheduleReload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        Mono.fromCallable(this::reload)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> reloading.set(false))
+                .subscribe();
+    }
+
+    /**
+     * Loads the catalog again on the calling thread and publishes it. Returns whether a new index was published.
+     */
+    public boolean reload() {
+        try {
+            CurrencyIndex loaded = loader.call();
+            if (loaded == null) {
+                return false;
+            }
+            index = loaded;
+            log.info("Loaded currency catalog with {} coins and {} vs-currencies",
+                    loaded.coinCount(), loaded.vsCurrencyCount());
+            return true;
+        } catch (Exception e) {
+            log.warn("Currency catalog reload failed, keeping {}: {}", index, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Shape of the catalog file; coins carry the same {@code id} and {@code symbol} fields as CoinGecko's coin list.
+     */
+    record CatalogFile(List<CurrencyIndex.Coin> coins, List<String> vsCurrencies) {
+    }
+
+    /**
+     * Reads the catalog file, skipping the read while its modification time is unchanged.
+     */
+    static final class FileLoader implements Callable<CurrencyIndex> {
+
+        private final Path file;
+        private final ObjectMapper objectMapper;
+        private FileTime loadedModified;
+
+        FileLoader(Path file, ObjectMapper objectMapper) {
+            this.file = file;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public synchronized CurrencyIndex call() {
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.equals(loadedModified)) {
+                    return null;
+                }
+                CatalogFile catalog = objectMapper.readValue(file.toFile(), CatalogFile.class);
+                CurrencyIndex index = CurrencyIndex.of(
+                        catalog.coins() == null ? List.of() : catalog.coins(),
+                        catalog.vsCurrencies() == null ? List.of() : catalog.vsCurrencies());
+                loadedModified = modified;
+                return index;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Fetches {@code /coins/list} and {@code /simple/supported_vs_currencies} as background upstream calls.
+     */
+    private record CoinGeckoLoader(WebClient webClient, UpstreamScheduler scheduler)
+            implements Callable<CurrencyIndex> {
+
+        @Override
+        public CurrencyIndex call() {
+            Mono<List<CurrencyIndex.Coin>> coins = scheduler.schedule(() -> webClient.get()
+                    .uri("/coins/list")
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<List<CurrencyIndex.Coin>>() {}));
+            Mono<List<String>> vsCurrencies = scheduler.schedule(() -> webClient.get()
+                    .uri("/simple/supported_vs_currencies")
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<List<String>>() {}));
+            return Mono.zip(coins, vsCurrencies, CurrencyIndex::of)
+                    .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                    .block(LOAD_TIMEOUT);
+        }
+    }
+}
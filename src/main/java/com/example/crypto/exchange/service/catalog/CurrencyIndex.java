@@ -0,0 +1,187 @@
+package com.example.crypto.exchange.service.catalog;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Immutable, case-insensitive index of coins and vs-currencies.
+ * <p>
+ * Coins are stored column-wise in two string arrays. One open-addressing table of {@code int} slots maps both
+ * coin ids and symbols to a coin, so a lookup is one hash and a short probe without allocating a lower-cased
+ * copy of the key. Symbols are not unique upstream; the first coin claiming a key keeps it. The ids and symbols of
+ * the {@link SupportedCurrency} coins are claimed before any catalog key, so a catalog coin whose id is
+ * {@code btc} cannot take that symbol from bitcoin.
+ */
+public final class CurrencyIndex {
+
+    private static final int ID = 0;
+    private static final int SYMBOL = 1;
+
+    private final String[] ids;
+    private final String[] symbols;
+    private final String[][] coinColumns;
+    private final int[] coinSlots;
+    private final String[] vsCurrencies;
+    private final String[][] vsColumns;
+    private final int[] vsSlots;
+
+    private CurrencyIndex(String[] ids, String[] symbols, String[] vsCurrencies, int core) {
+        this.ids = ids;
+        this.symbols = symbols;
+        this.coinColumns = new String[][]{ids, symbols};
+        this.coinSlots = new int[tableSize(ids.length * 2)];
+        this.vsCurrencies = vsCurrencies;
+        this.vsColumns = new String[][]{vsCurrencies};
+        this.vsSlots = new int[tableSize(vsCurrencies.length)];
+        claimRange(ID, 0, core);
+        claimRange(SYMBOL, 0, core);
+        claimRange(ID, core, ids.length);
+        claimRange(SYMBOL, core, symbols.length);
+        for (int i = 0; i < vsCurrencies.length; i++) {
+            claim(vsSlots, vsColumns, ID, i);
+        }
+    }
+
+    /**
+     * Index of the {@link SupportedCurrency} values only.
+     */
+    public static CurrencyIndex builtin() {
+        return of(List.of(), List.of());
+    }
+
+    /**
+     * Builds an index of the given coins and vs-currencies on top of the {@link SupportedCurrency} values. Ids and
+     * vs-currencies are stored lower-cased; blank entries and repeated ids or vs-currencies are skipped.
+     */
+    public static CurrencyIndex of(List<Coin> coins, List<String> vsCurrencies) {
+        List<String> ids = new ArrayList<>(coins.size() + SupportedCurrency.count());
+        List<String> symbols = new ArrayList<>(coins.size() + SupportedCurrency.count());
+        Set<String> seenIds = new HashSet<>();
+        Set<String> vs = new LinkedHashSet<>();
+        for (SupportedCurrency currency : SupportedCurrency.values()) {
+            seenIds.add(currency.getCoinId());
+            ids.add(currency.getCoinId());
+            symbols.add(currency.name().toLowerCase(Locale.ROOT));
+            vs.add(currency.getVsCurrency());
+        }
+        for (Coin coin : coins) {
+            if (coin == null || isBlank(coin.id()) || isBlank(coin.symbol())) {
+                continue;
+            }
+            String id = coin.id().toLowerCase(Locale.ROOT);
+            if (seenIds.add(id)) {
+                ids.add(id);
+                symbols.add(coin.symbol().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String currency : vsCurrencies) {
+            if (!isBlank(currency)) {
+                vs.add(currency.toLowerCase(Locale.ROOT));
+            }
+        }
+        return new CurrencyIndex(ids.toArray(new String[0]), symbols.toArray(new String[0]), vs.toArray(new String[0]),
+                SupportedCurrency.count());
+    }
+
+    /**
+     * Returns the coin id for a coin id or symbol in any case, or {@code null} if the index does not know it.
+     */
+    public String coinId(String idOrSymbol) {
+        int coin = find(coinSlots, coinColumns, idOrSymbol);
+        return coin < 0 ? null : ids[coin];
+    }
+
+    public boolean isVsCurrency(String currency) {
+        return find(vsSlots, vsColumns, currency) >= 0;
+    }
+
+    /**
+     * All vs-currencies, lower-cased, supported currencies first. The array is shared and must not be modified.
+     */
+    public String[] vsCurrencies() {
+        return vsCurrencies;
+    }
+
+    public int coinCount() {
+        return ids.length;
+    }
+
+    public int vsCurrencyCount() {
+        return vsCurrencies.length;
+    }
+
+    private void claimRange(int column, int from, int to) {
+        for (int i = from; i < to; i++) {
+            claim(coinSlots, coinColumns, column, i);
+        }
+    }
+
+    /**
+     * Slots hold {@code (entry << 1 | column) + 1}, so a probe only ever compares against the key that claimed
+     * the slot and a later coin sharing a symbol cannot shadow the earlier one.
+     */
+    private static void claim(int[] slots, String[][] columns, int column, int entry) {
+        String key = columns[column][entry];
+        int mask = slots.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int claimed = slots[slot] - 1;
+            if (claimed < 0) {
+                slots[slot] = (entry << 1 | column) + 1;
+                return;
+            }
+            if (columns[claimed & 1][claimed >>> 1].equalsIgnoreCase(key)) {
+                return;
+            }
+        }
+    }
+
+    private static int find(int[] slots, String[][] columns, String key) {
+        if (key == null || key.isEmpty()) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int claimed = slots[slot] - 1;
+            if (claimed < 0) {
+                return -1;
+            }
+            if (columns[claimed & 1][claimed >>> 1].equalsIgnoreCase(key)) {
+                return claimed >>> 1;
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            h = 31 * h + (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : Character.toLowerCase(c));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSize(int keys) {
+        int size = Integer.highestOneBit(Math.max(keys, 1) * 2 - 1) << 1;
+        return Math.max(size, 8);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyIndex[coins=" + ids.length + ", vsCurrencies=" + vsCurrencies.length + "]";
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Coin(String id, String symbol) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.crypto.exchange.service.config;
+
+import com.example.crypto.exchange.service.catalog.CurrencyCatalog;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.example.crypto.exchange.service.provider.RateProviderRouter;
+import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.RateCache;
+import com.example.crypto.exchange.service.service.RateResponseCache;
+import com.example.crypto.exchange.service.service.RateSnapshot;
+import com.example.crypto.exchange.service.service.RateSnapshotHolder;
+import com.example.crypto.exchange.service.service.SingleFlight;
+import com.example.crypto.exchange.service.service.UpstreamCircuitBreaker;
+import com.example.crypto.exchange.service.service.UpstreamScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level meters on top of the endpoint ({@code http.server.requests}) and upstream
+ * ({@code http.client.requests}) timers that Spring Boot records on its own.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder rateCacheMetrics(RateCache rateCache, SingleFlight singleFlight) {
+        return registry -> {
+            FunctionCounter.builder("rates.cache.requests", rateCache, RateCache::getHitCount)
+                    .tag("result", "hit")
+                    .description("Rate cache lookups by result")
+                    .register(registry);
+            FunctionCounter.builder("rates.cache.requests", rateCache, RateCache::getStaleHitCount)
+                    .tag("result", "stale")
+                    .register(registry);
+            FunctionCounter.builder("rates.cache.requests", rateCache, RateCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("rates.cache.size", rateCache, RateCache::size)
+                    .register(registry);
+            FunctionCounter.builder("rates.upstream.coalesced", singleFlight, SingleFlight::getCoalescedCount)
+                    .description("Upstream calls avoided by joining an identical in-flight call")
+                    .register(registry);
+            Gauge.builder("rates.upstream.inflight", singleFlight, SingleFlight::getInFlightCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder responseCacheMetrics(RateResponseCache responseCache) {
+        return registry -> {
+            FunctionCounter.builder("rates.response.cache.requests", responseCache, RateResponseCache::getHitCount)
+                    .tag("result", "hit")
+                    .description("Lookups of serialized rate responses by result")
+                    .register(registry);
+            FunctionCounter.builder("rates.response.cache.requests", responseCache, RateResponseCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("rates.response.cache.size", responseCache, RateResponseCache::size)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder currencyCatalogMetrics(CurrencyCatalog catalog) {
+        return registry -> {
+            Gauge.builder("rates.catalog.coins", catalog, c -> c.current().coinCount())
+                    .description("Coins in the currently loaded currency catalog")
+                    .register(registry);
+            Gauge.builder("rates.catalog.vscurrencies", catalog, c -> c.current().vsCurrencyCount())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder upstreamHealthMetrics(RateSnapshotHolder snapshotHolder, UpstreamCircuitBreaker circuitBreaker) {
+        return registry -> {
+            TimeGauge.builder("rates.snapshot.age", snapshotHolder, TimeUnit.MILLISECONDS, MetricsConfig::snapshotAge)
+                    .description("Time since the current rate snapshot was fetched")
+                    .register(registry);
+            for (UpstreamCircuitBreaker.State state : UpstreamCircuitBreaker.State.values()) {
+                Gauge.builder("rates.upstream.circuit", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                        .tag("state", state.name().toLowerCase())
+                        .description("1 for the current circuit breaker state, 0 otherwise")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder rateProviderMetrics(RateProviderRouter router) {
+        return registry -> {
+            for (String provider : router.getProviderNames()) {
+                FunctionCounter.builder("rates.provider.requests", router, r -> r.getRequestCount(provider, true))
+                        .tags("provider", provider, "outcome", "success")
+                        .description("Rate lookups answered or failed by each provider")
+                        .register(registry);
+                FunctionCounter.builder("rates.provider.requests", router, r -> r.getRequestCount(provider, false))
+                        .tags("provider", provider, "outcome", "failure")
+                        .register(registry);
+                Gauge.builder("rates.provider.healthy", router, r -> r.isHealthy(provider) ? 1 : 0)
+                        .tag("provider", provider)
+                        .description("1 while the provider is in rotation, 0 while it is left out")
+                        .register(registry);
+                TimeGauge.builder("rates.provider.hedge.delay", router, TimeUnit.MILLISECONDS,
+                                r -> r.getHedgeDelay(provider).toMillis())
+                        .tag("provider", provider)
+                        .description("Wait before a lookup sent to this provider is hedged")
+                        .register(registry);
+            }
+            FunctionCounter.builder("rates.provider.hedged", router, RateProviderRouter::getHedgedCount)
+                    .description("Lookups also sent to a secondary provider")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder upstreamSchedulerMetrics(UpstreamScheduler scheduler) {
+        return registry -> {
+            for (UpstreamScheduler.Priority priority : UpstreamScheduler.Priority.values()) {
+                Gauge.builder("rates.upstream.queue.depth", scheduler, s -> s.getQueueDepth(priority))
+                        .tag("priority", priority.name().toLowerCase())
+                        .description("Upstream calls waiting for a rate limit token")
+                        .register(registry);
+            }
+            FunctionTimer.builder("rates.upstream.queue.wait", scheduler, UpstreamScheduler::getWaitCount,
+                            UpstreamScheduler::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time upstream calls waited for a rate limit token")
+                    .register(registry);
+            Gauge.builder("rates.upstream.tokens", scheduler, UpstreamScheduler::getAvailableTokens)
+                    .register(registry);
+            FunctionCounter.builder("rates.upstream.shed", scheduler, UpstreamScheduler::getShedCount)
+                    .description("Upstream calls rejected because the queue was full or over its latency budget")
+                    .register(registry);
+            FunctionCounter.builder("rates.upstream.ratelimited", scheduler, UpstreamScheduler::getRateLimitedCount)
+                    .description("429 responses received from the upstream")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder failedLookupMetrics(CryptoRateService cryptoRateService) {
+        return registry -> {
+            for (SupportedCurrency from : SupportedCurrency.values()) {
+                for (SupportedCurrency to : SupportedCurrency.values()) {
+                    FunctionCounter.builder("rates.lookup.failed", cryptoRateService,
+                                    service -> service.getFailedLookupCount(from, to))
+                            .tag("from", from.name())
+                            .tag("to", to.name())
+                            .description("Conversions skipped because no rate was available")
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    private static double snapshotAge(RateSnapshotHolder snapshotHolder) {
+        RateSnapshot snapshot = snapshotHolder.current();
+        return snapshot == null ? Double.NaN : Duration.between(snapshot.fetchedAt(), Instant.now()).toMillis();
+    }
+}
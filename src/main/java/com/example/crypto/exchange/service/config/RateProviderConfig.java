@@ -0,0 +1,44 @@
+package com.example.crypto.exchange.service.config;
+
+import com.example.crypto.exchange.service.provider.CoinGeckoRateProvider;
+import com.example.crypto.exchange.service.provider.RateProvider;
+import com.example.crypto.exchange.service.provider.RateProviderRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RateProviderConfig {
+
+    /**
+     * CoinGecko at {@code app.cryptoApi.baseUrl} is the primary provider. Extra CoinGecko-compatible providers are
+     * listed as {@code name=url} pairs and share its connection pool and timeouts.
+     */
+    @Bean
+    public RateProviderRouter rateProviderRouter(
+            WebClient webClient,
+            @Value("${app.cryptoApi.providers.extra:}") List<String> extra,
+            @Value("${app.cryptoApi.providers.hedge.enabled:true}") boolean hedge,
+            @Value("${app.cryptoApi.providers.hedge.percentile:0.95}") double percentile,
+            @Value("${app.cryptoApi.providers.hedge.minDelay:50ms}") Duration minDelay,
+            @Value("${app.cryptoApi.providers.hedge.maxDelay:1s}") Duration maxDelay,
+            @Value("${app.cryptoApi.providers.unhealthyAfter:3}") int unhealthyAfter,
+            @Value("${app.cryptoApi.providers.unhealthyFor:30s}") Duration unhealthyFor) {
+        List<RateProvider> providers = new ArrayList<>();
+        providers.add(new CoinGeckoRateProvider("coingecko", webClient));
+        for (String entry : extra) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Rate provider must be configured as name=url: " + entry);
+            }
+            WebClient client = webClient.mutate().baseUrl(entry.substring(eq + 1).trim()).build();
+            providers.add(new CoinGeckoRateProvider(entry.substring(0, eq).trim(), client));
+        }
+        return new RateProviderRouter(providers, hedge, percentile, minDelay, maxDelay, unhealthyAfter, unhealthyFor);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.crypto.exchange.service.config;
+
+import com.example.crypto.exchange.service.catalog.CurrencyIndex;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ErrorResponse;
+import com.example.crypto.exchange.service.model.ExchangeRequest;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection and resource hints for the AOT-processed and native builds ({@code -Paot}, {@code -Pnative}).
+ * <p>
+ * Spring infers hints for controller return types, but not for the nested Lombok types inside them, the error
+ * bodies written by the exception handlers, the catalog JSON read by WebClient and Jackson, or the fields that
+ * Hibernate Validator reads its constraints from.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(RuntimeHintsConfig.Registrar.class)
+public class RuntimeHintsConfig {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        private static final Class<?>[] JSON_TYPES = {
+                CurrencyRatesResponse.class,
+                ExchangeRequest.class,
+                ExchangeResponse.class,
+                ExchangeResponse.ExchangeResult.class,
+                BatchExchangeResponse.class,
+                BatchExchangeResponse.Item.class,
+                HistoryResponse.class,
+                HistoryResponse.Candle.class,
+                ErrorResponse.class,
+                CurrencyIndex.Coin.class
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+            hints.reflection().registerType(TypeReference.of(
+                            "com.example.crypto.exchange.service.catalog.CurrencyCatalog$CatalogFile"),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+            hints.reflection().registerType(ExchangeRequest.class, MemberCategory.DECLARED_FIELDS);
+            hints.resources().registerResourceBundle("org.hibernate.validator.ValidationMessages");
+            hints.resources().registerPattern("logback-spring.xml");
+        }
+    }
+}
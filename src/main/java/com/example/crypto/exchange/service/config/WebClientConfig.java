@@ -1,14 +1,49 @@
 package com.example.crypto.exchange.service.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider cryptoApiConnectionProvider(
+            @Value("${app.cryptoApi.http.maxConnections:50}") int maxConnections,
+            @Value("${app.cryptoApi.http.pendingAcquireMaxCount:200}") int pendingAcquireMaxCount,
+            @Value("${app.cryptoApi.http.pendingAcquireTimeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${app.cryptoApi.http.maxIdleTime:20s}") Duration maxIdleTime,
+            @Value("${app.cryptoApi.http.maxLifeTime:5m}") Duration maxLifeTime,
+            @Value("${app.cryptoApi.http.evictInBackground:30s}") Duration evictInBackground) {
+        return ConnectionProvider.builder("crypto-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .build();
+    }
+
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public WebClient webClient(WebClient.Builder builder,
+                               ConnectionProvider cryptoApiConnectionProvider,
+                               @Value("${app.cryptoApi.baseUrl}") String baseUrl,
+                               @Value("${app.cryptoApi.http.connectTimeout:2s}") Duration connectTimeout,
+                               @Value("${app.cryptoApi.http.responseTimeout:5s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(cryptoApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return builder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 }
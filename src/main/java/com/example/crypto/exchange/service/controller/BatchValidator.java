@@ -0,0 +1,47 @@
+package com.example.crypto.exchange.service.controller;
+
+import com.example.crypto.exchange.service.model.ExchangeRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the requests of a batch exchange one by one, so an invalid item is reported in its own result instead
+ * of rejecting the whole batch. Shared by the servlet and the reactive controller.
+ */
+@Component
+public class BatchValidator {
+
+    private final Validator validator;
+
+    public BatchValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Returns the errors of every invalid request, keyed by its index in the batch and then by property path.
+     */
+    public Map<Integer, Map<String, String>> validate(List<ExchangeRequest> requests) {
+        Map<Integer, Map<String, String>> rejected = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ExchangeRequest request = requests.get(i);
+            if (request == null) {
+                rejected.put(i, Map.of("request", "Exchange request cannot be null"));
+                continue;
+            }
+            Set<ConstraintViolation<ExchangeRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation ->
+                        errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                rejected.put(i, errors);
+            }
+        }
+        return rejected;
+    }
+}
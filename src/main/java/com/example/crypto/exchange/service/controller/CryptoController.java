@@ -1,42 +1,122 @@
 package com.example.crypto.exchange.service.controller;
 
+import com.example.crypto.exchange.service.mapper.CurrencyMapper;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
 import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
 import com.example.crypto.exchange.service.model.ExchangeRequest;
 import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
 import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.RateLookup;
+import com.example.crypto.exchange.service.service.RateResponseCache;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/currencies")
+@Validated
 @Slf4j
 public class CryptoController {
 
     private final CryptoRateService cryptoRateService;
+    private final RateResponseCache responseCache;
+    private final BatchValidator batchValidator;
 
-    public CryptoController(CryptoRateService cryptoRateService) {
+    public CryptoController(CryptoRateService cryptoRateService, RateResponseCache responseCache,
+                            BatchValidator batchValidator) {
         this.cryptoRateService = cryptoRateService;
+        this.responseCache = responseCache;
+        this.batchValidator = batchValidator;
     }
 
+    /**
+     * Answers with 304 and no body when {@code If-None-Match} carries the current ETag of the requested rates,
+     * otherwise with the cached JSON rendering of them. Sources or filters outside the supported currencies are
+     * looked up in the currency catalog; those responses are rendered per request and must be revalidated.
+     */
     @GetMapping("/{currency}")
-    public CurrencyRatesResponse getRates(
+    public RawValue getRates(
+            @PathVariable("currency") String currency,
+            @RequestParam(name="filter[]", required = false) List<String> filters,
+            WebRequest webRequest,
+            HttpServletResponse httpResponse) {
+        log.debug("Received request to get rates for currency={} with filters={}", currency, filters);
+        RateResponseCache.Response response;
+        if (CurrencyMapper.isSupported(currency, filters)) {
+            RateLookup rates = cryptoRateService.lookupRates(currency, filters);
+            httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, rates.cacheControl().getHeaderValue());
+            response = responseCache.get(rates);
+        } else {
+            httpResponse.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            response = responseCache.render(cryptoRateService.getCatalogRates(currency, filters));
+        }
+        if (webRequest.checkNotModified(response.etag())) {
+            return null;
+        }
+        log.debug("Returning rates for {} with ETag {}", currency, response.etag());
+        return response.body();
+    }
+
+    @GetMapping("/{currency}/history")
+    public HistoryResponse getHistory(
+            @PathVariable("currency") String currency,
+            @RequestParam("target") String target,
+            @RequestParam(name = "interval", defaultValue = "1m")
+            @Pattern(regexp = "(?i)1m|5m|1h", message = "Interval must be one of 1m, 5m, 1h") String interval,
+            @RequestParam(name = "from", required = false) Instant from,
+            @RequestParam(name = "to", required = false) Instant to) {
+        log.debug("Received history request for currency={} target={} interval={} from={} to={}",
+                currency, target, interval, from, to);
+        return cryptoRateService.getHistory(currency, target, interval, from, to);
+    }
+
+    @GetMapping(value = "/{currency}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CurrencyRatesResponse>> streamRates(
             @PathVariable("currency") String currency,
             @RequestParam(name="filter[]", required = false) List<String> filters) {
-        log.info("Received request to get rates for currency={} with filters={}", currency, filters);
-        CurrencyRatesResponse response = cryptoRateService.getFilteredRates(currency, filters);
-        log.info("Returning rates for {}: {}", currency, response.getRates());
-        return response;
+        log.debug("Received request to stream rates for currency={} with filters={}", currency, filters);
+        return cryptoRateService.streamRates(currency, filters)
+                .map(update -> ServerSentEvent.builder(update).event("rates").build());
     }
 
     @PostMapping("/exchange")
     public ExchangeResponse exchange(@RequestBody @Valid ExchangeRequest request) {
-        log.info("Received exchange request: {}", request);
+        log.debug("Received exchange request: {}", request);
         ExchangeResponse response = cryptoRateService.exchangeCurrencies(request.getFrom(), request.getTo(), request.getAmount());
-        log.info("Exchange request processed successfully: {}", response);
+        log.debug("Exchange request processed successfully: {}", response);
+        return response;
+    }
+
+    @PostMapping("/exchange/batch")
+    public BatchExchangeResponse exchangeBatch(
+            @RequestBody
+            @NotEmpty(message = "Batch cannot be empty")
+            @Size(max = 1000, message = "Batch cannot contain more than 1000 requests")
+            List<ExchangeRequest> requests) {
+        log.debug("Received batch exchange request with {} items", requests.size());
+        Map<Integer, Map<String, String>> rejected = batchValidator.validate(requests);
+        BatchExchangeResponse response = cryptoRateService.exchangeBatch(requests, rejected);
+        log.debug("Batch exchange request processed: {} items, {} rejected", requests.size(), rejected.size());
         return response;
     }
 }
@@ -0,0 +1,149 @@
+package com.example.crypto.exchange.service.controller;
+
+import com.example.crypto.exchange.service.logging.CorrelationContext;
+import com.example.crypto.exchange.service.mapper.CurrencyMapper;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ExchangeRequest;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.RateResponseCache;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of {@link CryptoController}, active when the application runs as a reactive web
+ * application ({@code spring.main.web-application-type=reactive}).
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/currencies")
+@Validated
+@Slf4j
+public class ReactiveCryptoController {
+
+    private final CryptoRateService cryptoRateService;
+    private final RateResponseCache responseCache;
+    private final BatchValidator batchValidator;
+
+    public ReactiveCryptoController(CryptoRateService cryptoRateService, RateResponseCache responseCache,
+                                    BatchValidator batchValidator) {
+        this.cryptoRateService = cryptoRateService;
+        this.responseCache = responseCache;
+        this.batchValidator = batchValidator;
+    }
+
+    /**
+     * Completes without a body, as 304, when {@code If-None-Match} carries the current ETag of the requested rates,
+     * otherwise with the cached JSON rendering of them. Sources or filters outside the supported currencies are
+     * looked up in the currency catalog, as in {@link CryptoController#getRates}.
+     */
+    @GetMapping("/{currency}")
+    public Mono<RawValue> getRates(
+            @PathVariable("currency") String currency,
+            @RequestParam(name="filter[]", required = false) List<String> filters,
+            ServerWebExchange exchange) {
+        return Mono.deferContextual(context -> {
+            if (log.isDebugEnabled()) {
+                CorrelationContext.log(context, () -> log.debug(
+                        "Received request to get rates for currency={} with filters={}", currency, filters));
+            }
+            Mono<RateResponseCache.Response> responses = CurrencyMapper.isSupported(currency, filters)
+                    ? cryptoRateService.lookupRatesAsync(currency, filters).map(rates -> {
+                        exchange.getResponse().getHeaders().setCacheControl(rates.cacheControl());
+                        return responseCache.get(rates);
+                    })
+                    : cryptoRateService.getCatalogRatesAsync(currency, filters).map(rates -> {
+                        exchange.getResponse().getHeaders().setCacheControl(CacheControl.noCache());
+                        return responseCache.render(rates);
+                    });
+            return responses
+                    .mapNotNull(response -> {
+                        if (exchange.checkNotModified(response.etag())) {
+                            return null;
+                        }
+                        if (log.isDebugEnabled()) {
+                            CorrelationContext.log(context,
+                                    () -> log.debug("Returning rates for {} with ETag {}", currency, response.etag()));
+                        }
+                        return response.body();
+                    });
+        });
+    }
+
+    @GetMapping("/{currency}/history")
+    public Mono<HistoryResponse> getHistory(
+            @PathVariable("currency") String currency,
+            @RequestParam("target") String target,
+            @RequestParam(name = "interval", defaultValue = "1m")
+            @Pattern(regexp = "(?i)1m|5m|1h", message = "Interval must be one of 1m, 5m, 1h") String interval,
+            @RequestParam(name = "from", required = false) Instant from,
+            @RequestParam(name = "to", required = false) Instant to) {
+        return CorrelationContext.log(() -> log.debug(
+                        "Received history request for currency={} target={} interval={} from={} to={}",
+                        currency, target, interval, from, to))
+                .then(Mono.fromSupplier(() -> cryptoRateService.getHistory(currency, target, interval, from, to)));
+    }
+
+    @GetMapping(value = "/{currency}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CurrencyRatesResponse>> streamRates(
+            @PathVariable("currency") String currency,
+            @RequestParam(name="filter[]", required = false) List<String> filters) {
+        return CorrelationContext.log(() -> log.debug("Received request to stream rates for currency={} with filters={}",
+                        currency, filters))
+                .thenMany(cryptoRateService.streamRates(currency, filters))
+                .map(update -> ServerSentEvent.builder(update).event("rates").build());
+    }
+
+    @PostMapping("/exchange")
+    public Mono<ExchangeResponse> exchange(@RequestBody @Valid ExchangeRequest request) {
+        return CorrelationContext.log(() -> log.debug("Received exchange request: {}", request))
+                .then(cryptoRateService.exchangeCurrenciesAsync(request.getFrom(), request.getTo(), request.getAmount()))
+                .doOnEach(signal -> {
+                    if (signal.isOnNext()) {
+                        CorrelationContext.log(signal.getContextView(),
+                                () -> log.debug("Exchange request processed successfully: {}", signal.get()));
+                    }
+                });
+    }
+
+    @PostMapping("/exchange/batch")
+    public Mono<BatchExchangeResponse> exchangeBatch(
+            @RequestBody
+            @NotEmpty(message = "Batch cannot be empty")
+            @Size(max = 1000, message = "Batch cannot contain more than 1000 requests")
+            List<ExchangeRequest> requests) {
+        Map<Integer, Map<String, String>> rejected = batchValidator.validate(requests);
+        // the batch path looks up rates per source with blocking calls, so keep it off the event loop
+        return CorrelationContext.log(() -> log.debug("Received batch exchange request with {} items", requests.size()))
+                .then(Mono.fromCallable(() -> cryptoRateService.exchangeBatch(requests, rejected))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .doOnEach(signal -> {
+                    if (signal.isOnNext()) {
+                        CorrelationContext.log(signal.getContextView(), () -> log.debug(
+                                "Batch exchange request processed: {} items, {} rejected",
+                                requests.size(), rejected.size()));
+                    }
+                });
+    }
+}
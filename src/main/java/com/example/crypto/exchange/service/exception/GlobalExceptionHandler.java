@@ -1,8 +1,11 @@
 package com.example.crypto.exchange.service.exception;
 
 import com.example.crypto.exchange.service.model.ErrorResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +17,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class GlobalExceptionHandler {
 
@@ -37,6 +41,13 @@ public class GlobalExceptionHandler {
         return errors;
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidRequest(InvalidRequestException ex, WebRequest request) {
+        log.warn("Invalid request: {}", ex.getMessage());
+        return new ErrorResponse(Instant.now(), ex.getMessage(), request.getDescription(false), HttpStatus.BAD_REQUEST.value());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFound(ResourceNotFoundException ex, WebRequest request) {
@@ -44,6 +55,21 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(Instant.now(), ex.getMessage(), request.getDescription(false), HttpStatus.NOT_FOUND.value());
     }
 
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleUpstreamUnavailable(UpstreamUnavailableException ex, WebRequest request) {
+        log.warn("Upstream unavailable: {}", ex.getMessage());
+        return new ErrorResponse(Instant.now(), ex.getMessage(), request.getDescription(false), HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler(UpstreamThrottledException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleUpstreamThrottled(UpstreamThrottledException ex, WebRequest request,
+                                                 HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return handleUpstreamUnavailable(ex, request);
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleGeneralError(Exception ex, WebRequest request) {
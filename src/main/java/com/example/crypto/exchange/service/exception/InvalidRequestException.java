@@ -0,0 +1,7 @@
+package com.example.crypto.exchange.service.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
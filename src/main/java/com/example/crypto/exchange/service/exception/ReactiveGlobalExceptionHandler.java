@@ -0,0 +1,100 @@
+package com.example.crypto.exchange.service.exception;
+
+import com.example.crypto.exchange.service.logging.AccessLog;
+import com.example.crypto.exchange.service.logging.CorrelationContext;
+import com.example.crypto.exchange.service.model.ErrorResponse;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link GlobalExceptionHandler}, producing the same status codes and bodies.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveGlobalExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String,String> handleValidationExceptions(WebExchangeBindException ex, ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response), () -> log.error("Validation error: {}", ex.getMessage()));
+        Map<String,String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+                errors.put(error.getField(), error.getDefaultMessage()));
+        return errors;
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String,String> handleConstraintViolationExceptions(ConstraintViolationException ex,
+                                                                 ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response), () -> log.error("Constraint violation: {}", ex.getMessage()));
+        Map<String,String> errors = new HashMap<>();
+        ex.getConstraintViolations().forEach(violation ->
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidRequest(InvalidRequestException ex, ServerHttpRequest request,
+                                              ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response), () -> log.warn("Invalid request: {}", ex.getMessage()));
+        return new ErrorResponse(Instant.now(), ex.getMessage(), description(request), HttpStatus.BAD_REQUEST.value());
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleNotFound(ResourceNotFoundException ex, ServerHttpRequest request,
+                                        ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response), () -> log.warn("Resource not found: {}", ex.getMessage()));
+        return new ErrorResponse(Instant.now(), ex.getMessage(), description(request), HttpStatus.NOT_FOUND.value());
+    }
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleUpstreamUnavailable(UpstreamUnavailableException ex, ServerHttpRequest request,
+                                                   ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response), () -> log.warn("Upstream unavailable: {}", ex.getMessage()));
+        return new ErrorResponse(Instant.now(), ex.getMessage(), description(request), HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler(UpstreamThrottledException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleUpstreamThrottled(UpstreamThrottledException ex, ServerHttpRequest request,
+                                                 ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return handleUpstreamUnavailable(ex, request, response);
+    }
+
+    @ExceptionHandler(Exception.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ErrorResponse handleGeneralError(Exception ex, ServerHttpRequest request, ServerHttpResponse response) {
+        CorrelationContext.log(correlationId(response),
+                () -> log.error("Internal server error: {}", ex.getMessage(), ex));
+        return new ErrorResponse(Instant.now(), "An unexpected error occurred", description(request), HttpStatus.INTERNAL_SERVER_ERROR.value());
+    }
+
+    /**
+     * The id the correlation filter has already echoed; exception handlers run outside the request's Reactor
+     * context.
+     */
+    private static String correlationId(ServerHttpResponse response) {
+        return response.getHeaders().getFirst(AccessLog.CORRELATION_ID_HEADER);
+    }
+
+    private String description(ServerHttpRequest request) {
+        return "uri=" + request.getPath().value();
+    }
+}
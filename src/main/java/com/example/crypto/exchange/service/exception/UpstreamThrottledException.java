@@ -0,0 +1,20 @@
+package com.example.crypto.exchange.service.exception;
+
+import java.time.Duration;
+
+/**
+ * Upstream call not made, or refused by the upstream, because of its rate limit.
+ */
+public class UpstreamThrottledException extends UpstreamUnavailableException {
+
+    private final Duration retryAfter;
+
+    public UpstreamThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
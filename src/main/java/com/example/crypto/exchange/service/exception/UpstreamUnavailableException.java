@@ -0,0 +1,7 @@
+package com.example.crypto.exchange.service.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
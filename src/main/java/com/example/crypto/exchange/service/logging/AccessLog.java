@@ -0,0 +1,90 @@
+package com.example.crypto.exchange.service.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One structured line per sampled request on the {@code access} logger.
+ * <p>
+ * Server errors and requests slower than {@code slowThreshold} are always written; everything else is written with
+ * probability {@code sampleRate}. Nothing is formatted for requests that are not selected; selected lines are passed
+ * as a parameterized message, so the text is only rendered once the logging backend formats the event.
+ */
+public class AccessLog {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+    public static final String CORRELATION_ID_MDC_KEY = "correlationId";
+
+    private static final Logger log = LoggerFactory.getLogger("access");
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLog(boolean enabled, double sampleRate, Duration slowThreshold) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public void record(String method, String path, int status, long durationNanos, String correlationId) {
+        if (!log.isInfoEnabled() || !shouldLog(status, durationNanos, ThreadLocalRandom.current().nextDouble())) {
+            return;
+        }
+        CorrelationContext.log(correlationId, () -> log.info("method={} path={} status={} durationMs={} correlationId={}",
+                method, path, status, new Millis(durationNanos), correlationId));
+    }
+
+    boolean shouldLog(int status, long durationNanos, double roll) {
+        if (!enabled) {
+            return false;
+        }
+        return status >= 500 || durationNanos >= slowThresholdNanos || roll < sampleRate;
+    }
+
+    /**
+     * Returns the caller-supplied correlation id if it is usable, otherwise a new one. The id is echoed in a response
+     * header and written into log lines, so only ids of up to 64 characters from {@code [A-Za-z0-9._-]} are kept.
+     */
+    public static String correlationId(String header) {
+        if (isValidCorrelationId(header)) {
+            return header;
+        }
+        return Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+    }
+
+    private static boolean isValidCorrelationId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 64) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Duration in milliseconds with microsecond precision, rendered only when the line is formatted.
+     */
+    record Millis(long nanos) {
+
+        @Override
+        public String toString() {
+            long micros = nanos / 1_000;
+            StringBuilder text = new StringBuilder(12).append(micros / 1_000).append('.');
+            long fraction = micros % 1_000;
+            if (fraction < 100) {
+                text.append(fraction < 10 ? "00" : "0");
+            }
+            return text.append(fraction).toString();
+        }
+    }
+}
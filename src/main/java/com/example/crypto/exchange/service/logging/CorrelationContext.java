@@ -0,0 +1,45 @@
+package com.example.crypto.exchange.service.logging;
+
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Puts the correlation id of a reactive request into the MDC around single log calls.
+ * <p>
+ * Reactive handlers hop threads, so the id travels in the Reactor context under
+ * {@link AccessLog#CORRELATION_ID_MDC_KEY} and is copied into the MDC only where a line is written, instead of
+ * being restored around every operator of the request.
+ */
+public final class CorrelationContext {
+
+    private CorrelationContext() {
+    }
+
+    /**
+     * Completes empty after running {@code logging} with the correlation id of the subscriber's context in the MDC.
+     */
+    public static Mono<Void> log(Runnable logging) {
+        return Mono.deferContextual(context -> {
+            log(context, logging);
+            return Mono.empty();
+        });
+    }
+
+    public static void log(ContextView context, Runnable logging) {
+        log(context.<String>getOrDefault(AccessLog.CORRELATION_ID_MDC_KEY, null), logging);
+    }
+
+    public static void log(String correlationId, Runnable logging) {
+        if (correlationId == null) {
+            logging.run();
+            return;
+        }
+        MDC.put(AccessLog.CORRELATION_ID_MDC_KEY, correlationId);
+        try {
+            logging.run();
+        } finally {
+            MDC.remove(AccessLog.CORRELATION_ID_MDC_KEY);
+        }
+    }
+}
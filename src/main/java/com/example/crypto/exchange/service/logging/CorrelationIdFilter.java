@@ -0,0 +1,50 @@
+package com.example.crypto.exchange.service.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Tags every servlet request with a correlation id, exposed in the MDC for all log lines written while handling it
+ * and echoed in the response, and records the request in the {@link AccessLog}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    private final AccessLog accessLog;
+
+    public CorrelationIdFilter(@Value("${app.accessLog.enabled:true}") boolean enabled,
+                               @Value("${app.accessLog.sampleRate:0.01}") double sampleRate,
+                               @Value("${app.accessLog.slowThreshold:500ms}") Duration slowThreshold) {
+        this.accessLog = new AccessLog(enabled, sampleRate, slowThreshold);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String correlationId = AccessLog.correlationId(request.getHeader(AccessLog.CORRELATION_ID_HEADER));
+        MDC.put(AccessLog.CORRELATION_ID_MDC_KEY, correlationId);
+        response.setHeader(AccessLog.CORRELATION_ID_HEADER, correlationId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            accessLog.record(request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    System.nanoTime() - start, correlationId);
+            MDC.remove(AccessLog.CORRELATION_ID_MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.crypto.exchange.service.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link CorrelationIdFilter}. The id is echoed in the response and carried in the Reactor
+ * context under {@link AccessLog#CORRELATION_ID_MDC_KEY}; handlers are not bound to a single thread, so log calls
+ * that should carry it go through {@link CorrelationContext}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveCorrelationIdFilter implements WebFilter {
+
+    private final AccessLog accessLog;
+
+    public ReactiveCorrelationIdFilter(@Value("${app.accessLog.enabled:true}") boolean enabled,
+                                       @Value("${app.accessLog.sampleRate:0.01}") double sampleRate,
+                                       @Value("${app.accessLog.slowThreshold:500ms}") Duration slowThreshold) {
+        this.accessLog = new AccessLog(enabled, sampleRate, slowThreshold);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        ServerHttpRequest request = exchange.getRequest();
+        String correlationId = AccessLog.correlationId(request.getHeaders().getFirst(AccessLog.CORRELATION_ID_HEADER));
+        exchange.getResponse().getHeaders().set(AccessLog.CORRELATION_ID_HEADER, correlationId);
+
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(AccessLog.CORRELATION_ID_MDC_KEY, correlationId))
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    accessLog.record(request.getMethod().name(), request.getPath().value(),
+                            status == null ? 200 : status.value(), System.nanoTime() - start, correlationId);
+                });
+    }
+}
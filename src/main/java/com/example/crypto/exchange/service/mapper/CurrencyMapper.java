@@ -3,6 +3,8 @@ package com.example.crypto.exchange.service.mapper;
 import com.example.crypto.exchange.service.model.SupportedCurrency;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+
 @Slf4j
 public class CurrencyMapper {
 
@@ -10,12 +12,34 @@ public class CurrencyMapper {
     }
 
     public static String mapSymbolToId(String symbol, boolean isSource) {
-        try {
-            SupportedCurrency currency = SupportedCurrency.fromSymbol(symbol);
-            return isSource ? currency.getCoinId() : currency.getVsCurrency();
-        } catch (IllegalArgumentException e) {
+        SupportedCurrency currency = resolve(symbol);
+        return isSource ? currency.getCoinId() : currency.getVsCurrency();
+    }
+
+    public static SupportedCurrency resolve(String symbol) {
+        SupportedCurrency currency = SupportedCurrency.lookup(symbol);
+        if (currency == null) {
             log.warn("Unknown currency symbol received: {}", symbol);
-            throw e;
+            throw new IllegalArgumentException("Unsupported currency symbol: " + symbol);
+        }
+        return currency;
+    }
+
+    /**
+     * Whether the source and every target are {@link SupportedCurrency} symbols, so their rates can be read from the
+     * rate matrix. Any other coin or vs-currency is resolved through the currency catalog instead.
+     */
+    public static boolean isSupported(String source, List<String> targets) {
+        if (SupportedCurrency.lookup(source) == null) {
+            return false;
+        }
+        if (targets != null) {
+            for (String target : targets) {
+                if (SupportedCurrency.lookup(target) == null) {
+                    return false;
+                }
+            }
         }
+        return true;
     }
 }
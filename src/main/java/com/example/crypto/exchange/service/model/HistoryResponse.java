@@ -0,0 +1,30 @@
+package com.example.crypto.exchange.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryResponse {
+    private String source;
+    private String target;
+    private String interval;
+    private List<Candle> candles;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candle {
+        private Instant time;
+        private BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+    }
+}
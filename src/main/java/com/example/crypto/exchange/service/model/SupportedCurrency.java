@@ -1,18 +1,34 @@
 package com.example.crypto.exchange.service.model;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum SupportedCurrency {
     BTC("bitcoin", "btc"),
     ETH("ethereum", "eth"),
     USD("usd", "usd"),
     USDT("tether", "usdt");
 
+    private static final SupportedCurrency[] VALUES = values();
+    private static final Map<String, SupportedCurrency> BY_SYMBOL = new HashMap<>();
+    private static final Map<String, SupportedCurrency> BY_COIN_ID = new HashMap<>();
+
+    static {
+        for (SupportedCurrency c : VALUES) {
+            BY_SYMBOL.put(c.name(), c);
+            BY_COIN_ID.put(c.coinId, c);
+        }
+    }
 
     private final String coinId;
     private final String vsCurrency;
+    private final String rateKey;
 
     SupportedCurrency(String coinId, String vsCurrency) {
         this.coinId = coinId;
         this.vsCurrency = vsCurrency;
+        this.rateKey = vsCurrency.toUpperCase(Locale.ROOT);
     }
 
     public String getCoinId() {
@@ -23,12 +39,41 @@ public enum SupportedCurrency {
         return vsCurrency;
     }
 
+    /**
+     * Key of this currency in rate maps, i.e. the upper-cased vs-currency.
+     */
+    public String getRateKey() {
+        return rateKey;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static SupportedCurrency byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Case-insensitive symbol lookup that returns {@code null} instead of throwing for unknown symbols.
+     */
+    public static SupportedCurrency lookup(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        SupportedCurrency currency = BY_SYMBOL.get(symbol);
+        return currency != null ? currency : BY_SYMBOL.get(symbol.toUpperCase(Locale.ROOT));
+    }
+
+    public static SupportedCurrency fromCoinId(String coinId) {
+        return BY_COIN_ID.get(coinId);
+    }
+
     public static SupportedCurrency fromSymbol(String symbol) {
-        for (SupportedCurrency c : values()) {
-            if (c.name().equalsIgnoreCase(symbol)) {
-                return c;
-            }
+        SupportedCurrency currency = lookup(symbol);
+        if (currency == null) {
+            throw new IllegalArgumentException("Unsupported currency symbol: " + symbol);
         }
-        throw new IllegalArgumentException("Unsupported currency symbol: " + symbol);
+        return currency;
     }
 }
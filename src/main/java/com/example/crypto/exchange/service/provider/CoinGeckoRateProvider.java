@@ -0,0 +1,40 @@
+package com.example.crypto.exchange.service.provider;
+
+import com.example.crypto.exchange.service.service.CoinGeckoRatesDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Provider for CoinGecko's {@code /simple/price} endpoint, or any mirror of it, at the base URL of the given client.
+ */
+public class CoinGeckoRateProvider implements RateProvider {
+
+    private final String name;
+    private final WebClient webClient;
+
+    public CoinGeckoRateProvider(String name, WebClient webClient) {
+        this.name = name;
+        this.webClient = webClient;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Mono<Map<String, Map<String, BigDecimal>>> fetchRates(String[] ids, String[] vsCurrencies) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .queryParam("ids", String.join(",", ids))
+                        .queryParam("vs_currencies", String.join(",", vsCurrencies))
+                        .build())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> CoinGeckoRatesDecoder.decode(body, ids, vsCurrencies));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.crypto.exchange.service.provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recent latencies of one provider, counted in fixed log-linear buckets so a percentile can be estimated without
+ * keeping or sorting samples.
+ * <p>
+ * Every power of two of microseconds is split into four buckets, so an estimate is at most a quarter above the true
+ * latency. All counts are halved every {@code window} samples, which lets older latencies fade out and the estimate
+ * follow a provider that speeds up or slows down. Recording and reading take no lock; a sample that races with a
+ * halving may be counted at full or half weight.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 36 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong recorded = new AtomicLong();
+    private final int window;
+    private final int minSamples;
+
+    LatencyHistogram(int window, int minSamples) {
+        this.window = window;
+        this.minSamples = minSamples;
+    }
+
+    void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(0, nanos) / 1_000));
+        if (recorded.incrementAndGet() % window == 0) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.getAndUpdate(i, count -> count >> 1);
+            }
+        }
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, or {@code -1} until {@code minSamples} were recorded.
+     */
+    long percentileNanos(double percentile) {
+        if (recorded.get() < minSamples) {
+            return -1;
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundMicros(i) * 1_000;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) * 1_000;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (octave - 1) * SUB_BUCKETS + sub);
+    }
+
+    private static long upperBoundMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift);
+    }
+}
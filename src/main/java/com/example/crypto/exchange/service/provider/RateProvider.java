@@ -0,0 +1,17 @@
+package com.example.crypto.exchange.service.provider;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Source of spot rates. Implementations return rates keyed by coin id and then by upper-cased vs-currency, and signal
+ * upstream problems as errors rather than empty results.
+ */
+public interface RateProvider {
+
+    String getName();
+
+    Mono<Map<String, Map<String, BigDecimal>>> fetchRates(String[] ids, String[] vsCurrencies);
+}
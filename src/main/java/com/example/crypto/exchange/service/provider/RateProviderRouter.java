@@ -0,0 +1,217 @@
+package com.example.crypto.exchange.service.provider;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends rate lookups to the first healthy provider, in configuration order, and hedges them.
+ * <p>
+ * If the primary has not answered within its recent latency percentile (clamped to {@code [minDelay, maxDelay]}),
+ * or fails before that, the next healthy provider is queried as well and whichever answers first wins; the other
+ * call is cancelled. A provider that fails {@code unhealthyAfter} times in a row is left out of rotation for
+ * {@code unhealthyFor}. If no provider is healthy, all of them are tried again in order.
+ * <p>
+ * The latency percentile counts successful calls as well as calls that were cancelled or timed out, with the time
+ * they had taken until then as a lower bound; otherwise a provider that is slow often enough to be hedged would only
+ * be measured on its fast calls.
+ */
+@Slf4j
+public class RateProviderRouter {
+
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_SAMPLES = 16;
+
+    private final List<Tracked> providers;
+    private final boolean hedge;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int unhealthyAfter;
+    private final Duration unhealthyFor;
+    private final Clock clock;
+    private final LongAdder hedged = new LongAdder();
+
+    public RateProviderRouter(List<RateProvider> providers, boolean hedge, double percentile, Duration minDelay,
+                              Duration maxDelay, int unhealthyAfter, Duration unhealthyFor) {
+        this(providers, hedge, percentile, minDelay, maxDelay, unhealthyAfter, unhealthyFor, Clock.systemUTC());
+    }
+
+    RateProviderRouter(List<RateProvider> providers, boolean hedge, double percentile, Duration minDelay,
+                       Duration maxDelay, int unhealthyAfter, Duration unhealthyFor, Clock clock) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate provider is required");
+        }
+        this.providers = providers.stream().map(Tracked::new).toList();
+        this.hedge = hedge;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.unhealthyAfter = unhealthyAfter;
+        this.unhealthyFor = unhealthyFor;
+        this.clock = clock;
+    }
+
+    /**
+     * Router over a single provider, without hedging or health tracking.
+     */
+    public static RateProviderRouter of(RateProvider provider) {
+        return new RateProviderRouter(List.of(provider), false, 0.95, Duration.ZERO, Duration.ZERO,
+                Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    public Mono<Map<String, Map<String, BigDecimal>>> fetchRates(String[] ids, String[] vsCurrencies) {
+        return Mono.defer(() -> {
+            List<Tracked> candidates = candidates();
+            Tracked primary = candidates.get(0);
+            if (!hedge || candidates.size() < 2) {
+                return primary.call(ids, vsCurrencies);
+            }
+            Tracked secondary = candidates.get(1);
+            Duration delay = Duration.ofNanos(hedgeDelayNanos(primary));
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Mono<Map<String, Map<String, BigDecimal>>> first = primary.call(ids, vsCurrencies)
+                    .doOnError(error -> {
+                        primaryError.set(error);
+                        primaryFailed.tryEmitEmpty();
+                    });
+            Mono<Map<String, Map<String, BigDecimal>>> second = Mono.firstWithSignal(Mono.delay(delay).then(),
+                            primaryFailed.asMono())
+                    .then(Mono.defer(() -> {
+                        hedged.increment();
+                        log.debug("Hedging rate lookup for ids={} to provider={} after {}",
+                                Arrays.toString(ids), secondary.getName(), delay);
+                        return secondary.call(ids, vsCurrencies);
+                    }));
+
+            return Mono.firstWithValue(first, second)
+                    .onErrorMap(error -> primaryError.get() != null ? primaryError.get() : error);
+        });
+    }
+
+    public List<String> getProviderNames() {
+        return providers.stream().map(Tracked::getName).toList();
+    }
+
+    public boolean isHealthy(String name) {
+        return find(name).isHealthy(clock.millis());
+    }
+
+    /**
+     * Delay after which a lookup sent to the named provider as primary is hedged.
+     */
+    public Duration getHedgeDelay(String name) {
+        return Duration.ofNanos(hedgeDelayNanos(find(name)));
+    }
+
+    public long getRequestCount(String name, boolean success) {
+        Tracked provider = find(name);
+        return success ? provider.successes.sum() : provider.failures.sum();
+    }
+
+    public long getHedgedCount() {
+        return hedged.sum();
+    }
+
+    private List<Tracked> candidates() {
+        long now = clock.millis();
+        List<Tracked> healthy = new ArrayList<>(providers.size());
+        for (Tracked provider : providers) {
+            if (provider.isHealthy(now)) {
+                healthy.add(provider);
+            }
+        }
+        return healthy.isEmpty() ? providers : healthy;
+    }
+
+    private long hedgeDelayNanos(Tracked provider) {
+        long latency = provider.latencies.percentileNanos(percentile);
+        if (latency < 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, latency));
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        Throwable cause = error instanceof WebClientRequestException ? error.getCause() : error;
+        return cause instanceof TimeoutException || cause instanceof io.netty.handler.timeout.TimeoutException;
+    }
+
+    private Tracked find(String name) {
+        for (Tracked provider : providers) {
+            if (provider.getName().equals(name)) {
+                return provider;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rate provider: " + name);
+    }
+
+    /**
+     * A provider with its recent latencies and failure streak.
+     */
+    private final class Tracked {
+        private final RateProvider provider;
+        private final LatencyHistogram latencies = new LatencyHistogram(LATENCY_SAMPLES, MIN_SAMPLES);
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private int consecutiveFailures;
+        private volatile long unhealthyUntil;
+
+        private Tracked(RateProvider provider) {
+            this.provider = provider;
+        }
+
+        private String getName() {
+            return provider.getName();
+        }
+
+        private boolean isHealthy(long now) {
+            return now >= unhealthyUntil;
+        }
+
+        private Mono<Map<String, Map<String, BigDecimal>>> call(String[] ids, String[] vsCurrencies) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return provider.fetchRates(ids, vsCurrencies)
+                        .doOnNext(rates -> succeeded(System.nanoTime() - start))
+                        .doOnError(error -> failed(error, System.nanoTime() - start))
+                        .doOnCancel(() -> latencies.record(System.nanoTime() - start));
+            });
+        }
+
+        private void succeeded(long latencyNanos) {
+            successes.increment();
+            latencies.record(latencyNanos);
+            synchronized (this) {
+                consecutiveFailures = 0;
+            }
+        }
+
+        private synchronized void failed(Throwable error, long elapsedNanos) {
+            if (isTimeout(error)) {
+                latencies.record(elapsedNanos);
+            }
+            failures.increment();
+            if (++consecutiveFailures >= unhealthyAfter) {
+                unhealthyUntil = clock.millis() + unhealthyFor.toMillis();
+                consecutiveFailures = 0;
+                log.warn("Rate provider {} failed {} times in a row, leaving it out of rotation for {}: {}",
+                        getName(), unhealthyAfter, unhealthyFor, error.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Streaming decoder for CoinGecko {@code /simple/price} responses.
+ * <p>
+ * Buffers are fed into Jackson's non-blocking parser as they arrive and every quote is read straight from its number
+ * token with {@link JsonParser#getDecimalValue()}, so the exact decimal text sent by the upstream is kept. Quotes for
+ * one coin land in a single {@link Rates} row whose values are indexed by the position of the currency in the
+ * requested {@code vs_currencies}; no generic maps are built in between.
+ */
+@Slf4j
+public final class CoinGeckoRatesDecoder implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Targets targets;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final Map<String, Map<String, BigDecimal>> result;
+
+    private int depth;
+    private Rates row;
+
+    private CoinGeckoRatesDecoder(String[] sources, String[] vsCurrencies) {
+        this.targets = new Targets(vsCurrencies);
+        this.result = new LinkedHashMap<>(sources == null ? 16 : sources.length * 2);
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create JSON parser", e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Decodes a response body into coin id to upper-cased currency symbol to rate. Buffers are released as soon as
+     * they have been parsed.
+     */
+    public static Mono<Map<String, Map<String, BigDecimal>>> decode(Flux<DataBuffer> body, String[] sources,
+                                                                   String[] vsCurrencies) {
+        return Mono.using(
+                () -> new CoinGeckoRatesDecoder(sources, vsCurrencies),
+                decoder -> body
+                        .doOnNext(decoder::feed)
+                        .then(Mono.fromCallable(decoder::finish)),
+                CoinGeckoRatesDecoder::close);
+    }
+
+    public static Map<String, Map<String, BigDecimal>> decode(byte[] body, String[] sources, String[] vsCurrencies) {
+        try (CoinGeckoRatesDecoder decoder = new CoinGeckoRatesDecoder(sources, vsCurrencies)) {
+            decoder.feed(ByteBuffer.wrap(body));
+            return decoder.finish();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            log.debug("Failed to close JSON parser: {}", e.getMessage());
+        }
+    }
+
+    private void feed(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                feed(iterator.next());
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private void feed(ByteBuffer buffer) {
+        try {
+            feeder.feedInput(buffer);
+            drain();
+        } catch (IOException e) {
+            throw new DecodingException("Malformed rates response from API: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Map<String, BigDecimal>> finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+        } catch (IOException e) {
+            throw new DecodingException("Malformed rates response from API: " + e.getMessage(), e);
+        }
+        if (depth != 0) {
+            throw new DecodingException("Truncated rates response from API");
+        }
+        return result;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (depth) {
+                case 0 -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new DecodingException("Expected a JSON object from API but got " + token);
+                    }
+                    depth = 1;
+                }
+                case 1 -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        row = new Rates(targets);
+                        result.put(parser.currentName(), row);
+                        depth = 2;
+                    } else if (token == JsonToken.END_OBJECT) {
+                        depth = 0;
+                    } else if (token != JsonToken.FIELD_NAME) {
+                        throw nonNumeric();
+                    }
+                }
+                default -> {
+                    if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+                        row.set(parser.currentName(), parser.getDecimalValue());
+                    } else if (token == JsonToken.END_OBJECT) {
+                        row = null;
+                        depth = 1;
+                    } else if (token != JsonToken.FIELD_NAME) {
+                        throw nonNumeric();
+                    }
+                }
+            }
+        }
+    }
+
+    private ResourceNotFoundException nonNumeric() throws IOException {
+        log.error("API returned a non-numeric value: {}", parser.getText());
+        return new ResourceNotFoundException("Non-numeric rate value received from API");
+    }
+
+    /**
+     * Requested currencies of one response, shared by all of its rows. Lookups are case-insensitive through an
+     * open-addressing table of {@code index + 1} slots, so neither the lower-case keys of the upstream nor the
+     * upper-case symbols of callers need a converted copy.
+     */
+    private static final class Targets {
+        private final String[] symbols;
+        private final int[] slots;
+
+        private Targets(String[] vsCurrencies) {
+            int count = vsCurrencies == null ? 0 : vsCurrencies.length;
+            this.symbols = new String[count];
+            this.slots = new int[Math.max(8, Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1)];
+            int mask = slots.length - 1;
+            for (int i = 0; i < count; i++) {
+                symbols[i] = vsCurrencies[i].toUpperCase(Locale.ROOT);
+                for (int slot = hash(symbols[i]) & mask; ; slot = (slot + 1) & mask) {
+                    if (slots[slot] == 0) {
+                        slots[slot] = i + 1;
+                        break;
+                    }
+                    if (symbols[slots[slot] - 1].equals(symbols[i])) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        private int indexOf(String vsCurrency) {
+            int mask = slots.length - 1;
+            for (int slot = hash(vsCurrency) & mask; ; slot = (slot + 1) & mask) {
+                int claimed = slots[slot] - 1;
+                if (claimed < 0) {
+                    return -1;
+                }
+                if (symbols[claimed].equalsIgnoreCase(vsCurrency)) {
+                    return claimed;
+                }
+            }
+        }
+
+        private static int hash(String key) {
+            int h = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                h = 31 * h + (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : Character.toUpperCase(c));
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Read-only rates of one coin keyed by upper-cased currency symbol. Currencies the upstream returned without
+     * being asked for are appended after the requested ones.
+     */
+    static final class Rates extends AbstractMap<String, BigDecimal> {
+        private final Targets targets;
+        private String[] symbols;
+        private BigDecimal[] values;
+        private int size;
+
+        private Rates(Targets targets) {
+            this.targets = targets;
+            this.symbols = targets.symbols;
+            this.values = new BigDecimal[targets.symbols.length];
+        }
+
+        private void set(String vsCurrency, BigDecimal value) {
+            int i = targets.indexOf(vsCurrency);
+            if (i < 0) {
+                i = extraIndexOf(vsCurrency.toUpperCase(Locale.ROOT));
+            }
+            if (values[i] == null) {
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private int extraIndexOf(String symbol) {
+            for (int i = targets.symbols.length; i < symbols.length; i++) {
+                if (symbols[i].equals(symbol)) {
+                    return i;
+                }
+            }
+            symbols = Arrays.copyOf(symbols, symbols.length + 1);
+            values = Arrays.copyOf(values, values.length + 1);
+            symbols[symbols.length - 1] = symbol;
+            return symbols.length - 1;
+        }
+
+        private int indexOf(Object key) {
+            if (!(key instanceof String symbol)) {
+                return -1;
+            }
+            int i = targets.indexOf(symbol);
+            if (i >= 0) {
+                return i;
+            }
+            for (i = targets.symbols.length; i < symbols.length; i++) {
+                if (symbols[i].equalsIgnoreCase(symbol)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public BigDecimal get(Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : values[i];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, BigDecimal>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, BigDecimal>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < values.length && values[from] == null) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < values.length;
+                        }
+
+                        @Override
+                        public Entry<String, BigDecimal> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, BigDecimal> entry = new SimpleImmutableEntry<>(symbols[next], values[next]);
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point exchange arithmetic.
+ * <p>
+ * The fee and the amount left after the fee are computed once per request and rounded to {@code scale} decimal
+ * places. Each target then costs a single long multiplication of that amount by the unscaled rate, rounded back to
+ * {@code scale} with {@code roundingMode}. When a rate or product does not fit in a long, the same rounding is
+ * applied through BigDecimal, so the result never depends on which path ran.
+ */
+@Component
+public class ConversionEngine {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int scale;
+    private final RoundingMode roundingMode;
+
+    public ConversionEngine(@Value("${app.exchange.scale:8}") int scale,
+                            @Value("${app.exchange.roundingMode:HALF_EVEN}") RoundingMode roundingMode) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Exchange scale must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+        this.scale = scale;
+        this.roundingMode = roundingMode;
+    }
+
+    public Quote quote(BigDecimal amount, BigDecimal feePercentage) {
+        BigDecimal fee = amount.multiply(feePercentage).setScale(scale, roundingMode);
+        BigDecimal amountAfterFee = amount.subtract(fee).setScale(scale, roundingMode);
+        return new Quote(amount, fee, amountAfterFee);
+    }
+
+    public ExchangeResponse.ExchangeResult convert(Quote quote, BigDecimal rate) {
+        return new ExchangeResponse.ExchangeResult(rate, quote.amount(), multiply(quote, rate), quote.fee());
+    }
+
+    private BigDecimal multiply(Quote quote, BigDecimal rate) {
+        int rateScale = rate.scale();
+        if (quote.compact() && rateScale >= 0 && rateScale < POWERS_OF_TEN.length && rate.precision() < 19) {
+            long rateUnscaled = rate.unscaledValue().longValue();
+            long high = Math.multiplyHigh(quote.amountAfterFeeUnscaled(), rateUnscaled);
+            long low = quote.amountAfterFeeUnscaled() * rateUnscaled;
+            if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+                return BigDecimal.valueOf(divide(low, POWERS_OF_TEN[rateScale]), scale);
+            }
+        }
+        return quote.amountAfterFee().multiply(rate).setScale(scale, roundingMode);
+    }
+
+    private long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int signum = dividend < 0 ? -1 : 1;
+        long twiceRemainder = Math.abs(remainder) * 2;
+        boolean increment = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP -> twiceRemainder >= divisor;
+            case HALF_DOWN -> twiceRemainder > divisor;
+            case HALF_EVEN -> twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + signum : quotient;
+    }
+
+    public static final class Quote {
+        private final BigDecimal amount;
+        private final BigDecimal fee;
+        private final BigDecimal amountAfterFee;
+        private final long amountAfterFeeUnscaled;
+        private final boolean compact;
+
+        private Quote(BigDecimal amount, BigDecimal fee, BigDecimal amountAfterFee) {
+            this.amount = amount;
+            this.fee = fee;
+            this.amountAfterFee = amountAfterFee;
+            this.compact = amountAfterFee.precision() < 19;
+            this.amountAfterFeeUnscaled = compact ? amountAfterFee.unscaledValue().longValue() : 0;
+        }
+
+        public BigDecimal amount() {
+            return amount;
+        }
+
+        public BigDecimal fee() {
+            return fee;
+        }
+
+        public BigDecimal amountAfterFee() {
+            return amountAfterFee;
+        }
+
+        long amountAfterFeeUnscaled() {
+            return amountAfterFeeUnscaled;
+        }
+
+        boolean compact() {
+            return compact;
+        }
+    }
+}
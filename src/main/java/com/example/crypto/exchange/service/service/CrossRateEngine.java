@@ -0,0 +1,109 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Derives every {@link SupportedCurrency} pair from a single set of quotes against one pivot vs-currency.
+ * <p>
+ * The rate from A to B is {@code price(A) / price(B)}, where both prices are expressed in the pivot and the pivot
+ * itself is priced at exactly one. Each division is rounded to {@code precision} significant digits using
+ * {@code roundingMode}; quotes are never rounded before dividing.
+ */
+@Component
+@Slf4j
+public class CrossRateEngine {
+
+    private final boolean enabled;
+    private final String pivot;
+    private final MathContext mathContext;
+
+    public CrossRateEngine(@Value("${app.cryptoApi.crossRates.enabled:false}") boolean enabled,
+                           @Value("${app.cryptoApi.crossRates.pivot:usd}") String pivot,
+                           @Value("${app.cryptoApi.crossRates.precision:18}") int precision,
+                           @Value("${app.cryptoApi.crossRates.roundingMode:HALF_EVEN}") RoundingMode roundingMode) {
+        this.enabled = enabled;
+        this.pivot = pivot.toLowerCase(Locale.ROOT);
+        this.mathContext = new MathContext(precision, roundingMode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getPivot() {
+        return pivot;
+    }
+
+    public String[] quotedCoinIds() {
+        return Arrays.stream(SupportedCurrency.values())
+                .filter(c -> !c.getVsCurrency().equals(pivot))
+                .map(SupportedCurrency::getCoinId)
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Flattens a {@code /simple/price} response quoted against the pivot into coin id to pivot price.
+     */
+    public Map<String, BigDecimal> pivotQuotes(Map<String, Map<String, BigDecimal>> response) {
+        String pivotKey = pivot.toUpperCase(Locale.ROOT);
+        Map<String, BigDecimal> quotes = new HashMap<>();
+        response.forEach((coinId, rates) -> {
+            BigDecimal price = rates.get(pivotKey);
+            if (price != null) {
+                quotes.put(coinId, price);
+            }
+        });
+        return quotes;
+    }
+
+    public Map<String, Map<String, BigDecimal>> deriveMatrix(Map<String, BigDecimal> pivotQuotes) {
+        Map<SupportedCurrency, BigDecimal> prices = prices(pivotQuotes);
+        Map<String, Map<String, BigDecimal>> matrix = new HashMap<>();
+        for (SupportedCurrency source : prices.keySet()) {
+            matrix.put(source.getCoinId(), deriveRow(source, prices));
+        }
+        return matrix;
+    }
+
+    public Map<String, BigDecimal> deriveRates(SupportedCurrency source, Map<String, BigDecimal> pivotQuotes) {
+        Map<SupportedCurrency, BigDecimal> prices = prices(pivotQuotes);
+        if (!prices.containsKey(source)) {
+            return null;
+        }
+        return deriveRow(source, prices);
+    }
+
+    private Map<String, BigDecimal> deriveRow(SupportedCurrency source, Map<SupportedCurrency, BigDecimal> prices) {
+        BigDecimal sourcePrice = prices.get(source);
+        Map<String, BigDecimal> row = new HashMap<>();
+        prices.forEach((target, targetPrice) -> row.put(
+                target.getRateKey(),
+                target == source ? BigDecimal.ONE : sourcePrice.divide(targetPrice, mathContext)));
+        return row;
+    }
+
+    private Map<SupportedCurrency, BigDecimal> prices(Map<String, BigDecimal> pivotQuotes) {
+        Map<SupportedCurrency, BigDecimal> prices = new EnumMap<>(SupportedCurrency.class);
+        for (SupportedCurrency currency : SupportedCurrency.values()) {
+            BigDecimal price = currency.getVsCurrency().equals(pivot) ? BigDecimal.ONE : pivotQuotes.get(currency.getCoinId());
+            if (price == null || price.signum() <= 0) {
+                log.warn("No usable {} quote for {}, leaving it out of derived rates", pivot, currency);
+                continue;
+            }
+            prices.put(currency, price);
+        }
+        return prices;
+    }
+}
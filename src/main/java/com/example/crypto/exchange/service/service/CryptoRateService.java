@@ -1,153 +1,657 @@
 package com.example.crypto.exchange.service.service;
 
+import com.example.crypto.exchange.service.catalog.CurrencyCatalog;
+import com.example.crypto.exchange.service.catalog.CurrencyIndex;
+import com.example.crypto.exchange.service.exception.InvalidRequestException;
 import com.example.crypto.exchange.service.exception.ResourceNotFoundException;
+import com.example.crypto.exchange.service.exception.UpstreamUnavailableException;
 import com.example.crypto.exchange.service.mapper.CurrencyMapper;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
 import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ExchangeRequest;
 import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
 import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.example.crypto.exchange.service.provider.RateProviderRouter;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Service
 @Slf4j
 public class CryptoRateService {
 
-    private final WebClient webClient;
+    private static final String[] SUPPORTED_VS_CURRENCIES = Arrays.stream(SupportedCurrency.values())
+            .map(SupportedCurrency::getVsCurrency)
+            .toArray(String[]::new);
 
-    @Value("${app.cryptoApi.baseUrl}")
-    private String baseUrl;
+    private final RateProviderRouter providers;
+    private final RateCache rateCache;
+    private final RateSnapshotHolder snapshotHolder;
+    private final SingleFlight singleFlight;
+    private final CrossRateEngine crossRateEngine;
+    private final ConversionEngine conversionEngine;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final RateHistory rateHistory;
+    private final UpstreamScheduler scheduler;
+    private final CurrencyCatalog catalog;
+    private final AtomicLongArray failedLookups =
+            new AtomicLongArray(SupportedCurrency.count() * SupportedCurrency.count());
 
     @Getter
     @Value("${app.fee.percentage:0.01}")
     private BigDecimal feePercentage;
 
-    public CryptoRateService(WebClient webClient) {
-        this.webClient = webClient;
+    @Value("${app.stream.bufferSize:16}")
+    private int streamBufferSize = 16;
+
+    @Value("${app.stream.refreshInterval:10s}")
+    private Duration streamRefreshInterval = Duration.ofSeconds(10);
+
+    @Value("${app.cryptoApi.retry.maxAttempts:2}")
+    private int retryMaxAttempts = 2;
+
+    @Value("${app.cryptoApi.retry.minBackoff:100ms}")
+    private Duration retryMinBackoff = Duration.ofMillis(100);
+
+    @Value("${app.cryptoApi.retry.maxBackoff:1s}")
+    private Duration retryMaxBackoff = Duration.ofSeconds(1);
+
+    @Value("${app.cryptoApi.retry.jitter:0.5}")
+    private double retryJitter = 0.5;
+
+    @Value("${app.cryptoApi.batch.maxIds:100}")
+    private int batchMaxIds = 100;
+
+    @Value("${app.cryptoApi.batch.maxVsCurrencies:25}")
+    private int batchMaxVsCurrencies = 25;
+
+    @Value("${app.cryptoApi.batch.concurrency:4}")
+    private int batchConcurrency = 4;
+
+    @Value("${app.cryptoApi.circuitBreaker.serveLastKnown:true}")
+    private boolean serveLastKnown = true;
+
+    @Value("${app.cryptoApi.circuitBreaker.lastKnownMaxAge:24h}")
+    private Duration lastKnownMaxAge = Duration.ofHours(24);
+
+    public CryptoRateService(RateProviderRouter providers, RateCache rateCache, RateSnapshotHolder snapshotHolder,
+                             SingleFlight singleFlight, CrossRateEngine crossRateEngine,
+                             ConversionEngine conversionEngine, UpstreamCircuitBreaker circuitBreaker,
+                             RateHistory rateHistory, UpstreamScheduler scheduler, CurrencyCatalog catalog) {
+        this.providers = providers;
+        this.rateCache = rateCache;
+        this.snapshotHolder = snapshotHolder;
+        this.singleFlight = singleFlight;
+        this.crossRateEngine = crossRateEngine;
+        this.conversionEngine = conversionEngine;
+        this.circuitBreaker = circuitBreaker;
+        this.rateHistory = rateHistory;
+        this.scheduler = scheduler;
+        this.catalog = catalog;
     }
 
     public CurrencyRatesResponse getFilteredRates(String currencySymbol, List<String> filters) {
-        String sourceForApi = CurrencyMapper.mapSymbolToId(currencySymbol, true);
-        log.debug("Fetching filtered rates for currency={}, filters={}", currencySymbol, filters);
+        return getFilteredRatesAsync(currencySymbol, filters).block();
+    }
 
-        String[] targetArray = null;
-        if (filters != null && !filters.isEmpty()) {
-            targetArray = filters.stream()
-                    .map(f -> CurrencyMapper.mapSymbolToId(f, false))
-                    .toArray(String[]::new);
-        }
+    /**
+     * Looks up the rates of one source without digesting them; only {@link #getVersionedRatesAsync} pays for that.
+     */
+    public Mono<CurrencyRatesResponse> getFilteredRatesAsync(String currencySymbol, List<String> filters) {
+        return Mono.defer(() -> {
+            SupportedCurrency source = CurrencyMapper.resolve(currencySymbol);
+            SupportedCurrency[] targets = normalize(resolveAll(filters));
+            log.debug("Fetching filtered rates for currency={}, filters={}", currencySymbol, filters);
+
+            return currentRatesAsync(source, targets)
+                    .map(rates -> new CurrencyRatesResponse(source.name(), rates.toMap(targets)));
+        });
+    }
 
-        Map<String, BigDecimal> allRates = getRates(sourceForApi, targetArray);
+    public VersionedRates getVersionedRates(String currencySymbol, List<String> filters) {
+        return getVersionedRatesAsync(currencySymbol, filters).block();
+    }
+
+    /**
+     * Looks up the rates of one source like {@link #getFilteredRatesAsync} and tags them with a digest of their
+     * content for HTTP validation. Filters are deduplicated and ordered, so equivalent filter lists yield equal
+     * results.
+     */
+    public Mono<VersionedRates> getVersionedRatesAsync(String currencySymbol, List<String> filters) {
+        return lookupRatesAsync(currencySymbol, filters).map(RateLookup::versioned);
+    }
+
+    public RateLookup lookupRates(String currencySymbol, List<String> filters) {
+        return lookupRatesAsync(currencySymbol, filters).block();
+    }
+
+    /**
+     * Looks up the rates of one source like {@link #getVersionedRatesAsync}, but leaves digesting them to the caller.
+     * The result carries the generation of the snapshot or cache entry the rates were read from, under which their
+     * digest and rendering can be reused.
+     */
+    public Mono<RateLookup> lookupRatesAsync(String currencySymbol, List<String> filters) {
+        return Mono.defer(() -> {
+            SupportedCurrency source = CurrencyMapper.resolve(currencySymbol);
+            SupportedCurrency[] targets = normalize(resolveAll(filters));
+            log.debug("Fetching filtered rates for currency={}, filters={}", currencySymbol, filters);
 
-        if (filters != null && !filters.isEmpty()) {
-            Set<String> allowed = filters.stream()
-                    .map(String::toUpperCase)
-                    .collect(Collectors.toSet());
+            return lookupAsync(source, targets);
+        });
+    }
 
-            allRates = allRates.entrySet().stream()
-                    .filter(e -> allowed.contains(e.getKey()))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    /**
+     * Returns the recorded OHLC candles of one pair between {@code from} and {@code to}, both optional. Without
+     * {@code to} the range ends now; without {@code from} it covers everything still held for the interval.
+     */
+    public HistoryResponse getHistory(String currencySymbol, String targetSymbol, String interval,
+                                      Instant from, Instant to) {
+        SupportedCurrency source = CurrencyMapper.resolve(currencySymbol);
+        SupportedCurrency target = CurrencyMapper.resolve(targetSymbol);
+        RateHistory.Interval resolution = RateHistory.Interval.fromLabel(interval);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : Instant.EPOCH;
+        if (start.isAfter(end)) {
+            throw new InvalidRequestException("History range starts after it ends: " + start + " > " + end);
         }
+        return new HistoryResponse(source.name(), target.name(), resolution.getLabel(),
+                rateHistory.candles(source, target, resolution, start, end));
+    }
+
+    /**
+     * Streams the rates of one source as they change. The first element carries every (filtered) rate, later
+     * elements only the rates whose value differs from the last one sent to this subscriber. Updates come from
+     * the shared snapshot published by the poller; a subscriber that falls more than {@code bufferSize} snapshots
+     * behind loses the oldest pending ones, which is safe because deltas are computed against what it last saw.
+     * Without a fresh snapshot at subscription, e.g. with the poller disabled, the rates are refreshed every
+     * {@code app.stream.refreshInterval} through the rate cache and single-flight instead, until a snapshot arrives.
+     */
+    public Flux<CurrencyRatesResponse> streamRates(String currencySymbol, List<String> filters) {
+        SupportedCurrency source = CurrencyMapper.resolve(currencySymbol);
+        SupportedCurrency[] targets = resolveAll(filters);
+        SupportedCurrency[] streamed = targets.length == 0 ? SupportedCurrency.values() : targets;
+
+        return Flux.defer(() -> {
+            Flux<RateSnapshot> published = snapshotHolder.updates()
+                    .filter(RateSnapshot::isServable)
+                    .onBackpressureBuffer(streamBufferSize,
+                            dropped -> log.debug("Dropping snapshot version={} for slow subscriber of {}", dropped.version(), source),
+                            BufferOverflowStrategy.DROP_OLDEST);
+            Flux<RateMatrix.Row> snapshots = published.mapNotNull(snapshot -> snapshot.rowFor(source));
+            Flux<RateMatrix.Row> updates = servableSnapshot() != null ? snapshots
+                    : Flux.merge(refreshedRates(source, targets).takeUntilOther(published), snapshots);
+
+            BigDecimal[] lastSent = new BigDecimal[SupportedCurrency.count()];
+            return updates.<CurrencyRatesResponse>handle((rates, sink) -> {
+                Map<String, BigDecimal> changed = new LinkedHashMap<>();
+                for (SupportedCurrency target : streamed) {
+                    BigDecimal rate = rates.get(target);
+                    BigDecimal previous = lastSent[target.ordinal()];
+                    if (rate != null && (previous == null || previous.compareTo(rate) != 0)) {
+                        changed.put(target.getRateKey(), rate);
+                        lastSent[target.ordinal()] = rate;
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    sink.next(new CurrencyRatesResponse(source.name(), changed));
+                }
+            });
+        });
+    }
 
-        return new CurrencyRatesResponse(currencySymbol.toUpperCase(), allRates);
+    private Flux<RateMatrix.Row> refreshedRates(SupportedCurrency source, SupportedCurrency[] targets) {
+        return Flux.interval(Duration.ZERO, streamRefreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> currentRatesAsync(source, targets)
+                        .onErrorResume(error -> {
+                            log.warn("Stream refresh failed for source={}: {}", source.getCoinId(), error.getMessage());
+                            return Mono.empty();
+                        }));
     }
 
     public ExchangeResponse exchangeCurrencies(String fromSymbol, List<String> toSymbols, BigDecimal amount) {
-        log.info("Starting currency exchange (multi-threaded): from={}, to={}, amount={}", fromSymbol, toSymbols, amount);
-        String fromForApi = CurrencyMapper.mapSymbolToId(fromSymbol, true);
-        String[] toForApi = toSymbols.stream().map(t -> CurrencyMapper.mapSymbolToId(t, false)).toArray(String[]::new);
+        return exchangeCurrenciesAsync(fromSymbol, toSymbols, amount).block();
+    }
+
+    /**
+     * Converts an amount from one currency into others. Pairs outside {@link SupportedCurrency} are quoted through the
+     * {@link CurrencyCatalog}, like {@link #getCatalogRatesAsync}, with the targets as vs-currencies.
+     */
+    public Mono<ExchangeResponse> exchangeCurrenciesAsync(String fromSymbol, List<String> toSymbols, BigDecimal amount) {
+        return Mono.defer(() -> {
+            log.debug("Starting currency exchange: from={}, to={}, amount={}", fromSymbol, toSymbols, amount);
+            if (!CurrencyMapper.isSupported(fromSymbol, toSymbols)) {
+                CurrencyIndex index = catalog.current();
+                String[] targets = vsTargets(index, toSymbols.toArray(new String[0]));
+                return catalogRatesAsync(index, fromSymbol, targets)
+                        .map(rates -> convert(fromSymbol.toUpperCase(Locale.ROOT), targets, amount, rates));
+            }
+            SupportedCurrency from = CurrencyMapper.resolve(fromSymbol);
+            SupportedCurrency[] targets = resolveAll(toSymbols);
 
-        Map<String, BigDecimal> rates = getRates(fromForApi, toForApi);
-        log.debug("Rates retrieved: {}, feePercentage={}", rates, feePercentage);
+            return currentRatesAsync(from, targets).map(rates -> {
+                log.debug("Rates retrieved: {}, feePercentage={}", rates, feePercentage);
+
+                ExchangeResponse response = convert(from, targets, amount, rates);
+                log.debug("Exchange completed for from={}, to={}, final response={}", fromSymbol, toSymbols, response);
+                return response;
+            });
+        });
+    }
 
-        List<CompletableFuture<Map.Entry<String, ExchangeResponse.ExchangeResult>>> futures = new ArrayList<>();
+    public BatchExchangeResponse exchangeBatch(List<ExchangeRequest> requests, Map<Integer, Map<String, String>> rejected) {
+        log.debug("Starting batch exchange of {} requests ({} rejected by validation)", requests.size(), rejected.size());
+        BatchExchangeResponse.Item[] items = new BatchExchangeResponse.Item[requests.size()];
+        rejected.forEach((index, errors) -> items[index] = new BatchExchangeResponse.Item(index, null, errors));
 
-        for (int i = 0; i < toSymbols.size(); i++) {
-            String toSymbol = toSymbols.get(i);
-            String toId = toForApi[i].toUpperCase();
+        Map<String, List<Integer>> bySource = new LinkedHashMap<>();
+        SupportedCurrency[][] targets = new SupportedCurrency[requests.size()][];
+        for (int i = 0; i < requests.size(); i++) {
+            if (items[i] != null) {
+                continue;
+            }
+            ExchangeRequest request = requests.get(i);
+            try {
+                targets[i] = resolveAll(request.getTo());
+            } catch (IllegalArgumentException e) {
+                items[i] = new BatchExchangeResponse.Item(i, null, Map.of("to", e.getMessage()));
+                continue;
+            }
+            bySource.computeIfAbsent(request.getFrom().toUpperCase(), k -> new ArrayList<>()).add(i);
+        }
 
-            CompletableFuture<Map.Entry<String, ExchangeResponse.ExchangeResult>> future = CompletableFuture.supplyAsync(() -> {
-                BigDecimal rate = rates.get(toId);
-                if (rate == null) {
-                    log.warn("No rate found for conversion from {} to {}", fromSymbol, toSymbol);
-                    return null;
+        bySource.forEach((fromSymbol, indices) -> {
+            SupportedCurrency from;
+            RateMatrix.Row rates;
+            try {
+                from = CurrencyMapper.resolve(fromSymbol);
+                rates = currentRates(from, union(indices, targets));
+            } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                indices.forEach(i -> items[i] = new BatchExchangeResponse.Item(i, null, Map.of("from", e.getMessage())));
+                return;
+            } catch (RuntimeException e) {
+                Throwable cause = Exceptions.unwrap(e);
+                if (!isUpstreamFailure(cause)) {
+                    throw e;
                 }
+                log.warn("Rates for source={} unavailable, failing its {} batch items: {}",
+                        fromSymbol, indices.size(), cause.getMessage());
+                indices.forEach(i -> items[i] = new BatchExchangeResponse.Item(i, null,
+                        Map.of("from", "Exchange rates for " + fromSymbol + " are temporarily unavailable")));
+                return;
+            }
 
-                BigDecimal fee = amount.multiply(feePercentage);
-                BigDecimal amountAfterFee = amount.subtract(fee);
-                BigDecimal result = amountAfterFee.multiply(rate);
+            for (int i : indices) {
+                ExchangeResponse response = convert(from, targets[i], requests.get(i).getAmount(), rates);
+                items[i] = new BatchExchangeResponse.Item(i, response, null);
+            }
+        });
 
-                log.debug("Calculated exchange in thread: from={} to={}, rate={}, fee={}, amountAfterFee={}, result={}",
-                        fromSymbol, toSymbol, rate, fee, amountAfterFee, result);
+        log.debug("Batch exchange completed for {} requests across {} sources", requests.size(), bySource.size());
+        return new BatchExchangeResponse(Arrays.asList(items));
+    }
 
-                ExchangeResponse.ExchangeResult exResult = new ExchangeResponse.ExchangeResult(rate, amount, result, fee);
-                return Map.entry(toSymbol.toUpperCase(), exResult);
-            });
+    private ExchangeResponse convert(SupportedCurrency from, SupportedCurrency[] targets, BigDecimal amount,
+                                     RateMatrix.Row rates) {
+        ConversionEngine.Quote quote = conversionEngine.quote(amount, feePercentage);
+        Map<String, ExchangeResponse.ExchangeResult> conversions = new LinkedHashMap<>(targets.length * 2);
+
+        for (SupportedCurrency target : targets) {
+            BigDecimal rate = rates.get(target);
+            if (rate == null) {
+                failedLookups.incrementAndGet(from.ordinal() * SupportedCurrency.count() + target.ordinal());
+                log.warn("No rate found for conversion from {} to {}", from, target);
+                continue;
+            }
+            conversions.put(target.name(), conversionEngine.convert(quote, rate));
+        }
+
+        log.debug("Calculated exchange: from={} to={}, fee={}, amountAfterFee={}, conversions={}",
+                from, targets, quote.fee(), quote.amountAfterFee(), conversions);
+        return new ExchangeResponse(from.name(), conversions);
+    }
+
+    private ExchangeResponse convert(String from, String[] targets, BigDecimal amount, Map<String, BigDecimal> rates) {
+        ConversionEngine.Quote quote = conversionEngine.quote(amount, feePercentage);
+        Map<String, ExchangeResponse.ExchangeResult> conversions = new LinkedHashMap<>(targets.length * 2);
+
+        for (String target : targets) {
+            String rateKey = target.toUpperCase(Locale.ROOT);
+            BigDecimal rate = rates.get(rateKey);
+            if (rate == null) {
+                log.warn("No rate found for conversion from {} to {}", from, rateKey);
+                continue;
+            }
+            conversions.put(rateKey, conversionEngine.convert(quote, rate));
+        }
+        return new ExchangeResponse(from, conversions);
+    }
 
-            futures.add(future);
+    private static SupportedCurrency[] resolveAll(List<String> symbols) {
+        if (symbols == null) {
+            return new SupportedCurrency[0];
+        }
+        SupportedCurrency[] currencies = new SupportedCurrency[symbols.size()];
+        for (int i = 0; i < currencies.length; i++) {
+            currencies[i] = CurrencyMapper.resolve(symbols.get(i));
         }
+        return currencies;
+    }
 
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    private static SupportedCurrency[] normalize(SupportedCurrency[] targets) {
+        boolean[] seen = new boolean[SupportedCurrency.count()];
+        int distinct = 0;
+        for (SupportedCurrency target : targets) {
+            if (!seen[target.ordinal()]) {
+                seen[target.ordinal()] = true;
+                distinct++;
+            }
+        }
+        SupportedCurrency[] normalized = new SupportedCurrency[distinct];
+        for (int i = 0, j = 0; i < seen.length; i++) {
+            if (seen[i]) {
+                normalized[j++] = SupportedCurrency.byOrdinal(i);
+            }
+        }
+        return normalized;
+    }
 
-        Map<String, ExchangeResponse.ExchangeResult> conversions = futures.stream()
-                .map(CompletableFuture::join)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    private static SupportedCurrency[] union(List<Integer> indices, SupportedCurrency[][] targets) {
+        boolean[] seen = new boolean[SupportedCurrency.count()];
+        List<SupportedCurrency> union = new ArrayList<>();
+        for (int i : indices) {
+            for (SupportedCurrency target : targets[i]) {
+                if (!seen[target.ordinal()]) {
+                    seen[target.ordinal()] = true;
+                    union.add(target);
+                }
+            }
+        }
+        return union.toArray(new SupportedCurrency[0]);
+    }
 
-        ExchangeResponse response = new ExchangeResponse(fromSymbol.toUpperCase(), conversions);
-        log.info("Exchange completed (multi-threaded) for from={}, to={}, final response={}", fromSymbol, toSymbols, response);
-        return response;
+    /**
+     * Number of conversions from {@code from} to {@code to} skipped because no rate was available.
+     */
+    public long getFailedLookupCount(SupportedCurrency from, SupportedCurrency to) {
+        return failedLookups.get(from.ordinal() * SupportedCurrency.count() + to.ordinal());
     }
 
     public Map<String, BigDecimal> getRates(String source, String[] targets) {
-        if (targets == null || targets.length == 0) {
-            targets = Arrays.stream(SupportedCurrency.values())
-                    .map(SupportedCurrency::getVsCurrency)
-                    .toArray(String[]::new);
+        return getRatesAsync(source, targets).block();
+    }
+
+    /**
+     * Looks up the rates of any coin in the {@link CurrencyCatalog}, given by id or symbol, against the given
+     * vs-currencies, or against every vs-currency in the catalog when none are given. Vs-currencies the catalog
+     * does not know fail with {@link IllegalArgumentException}.
+     */
+    public Mono<Map<String, BigDecimal>> getRatesAsync(String source, String[] targets) {
+        return Mono.defer(() -> {
+            CurrencyIndex index = catalog.current();
+            return catalogRatesAsync(index, source, vsTargets(index, targets));
+        });
+    }
+
+    public CurrencyRatesResponse getCatalogRates(String currencySymbol, List<String> filters) {
+        return getCatalogRatesAsync(currencySymbol, filters).block();
+    }
+
+    /**
+     * Looks up the rates of one source like {@link #getFilteredRatesAsync}, but through the {@link CurrencyCatalog},
+     * for sources or filters outside {@link SupportedCurrency}. Filters are vs-currencies; without them the source is
+     * quoted against every vs-currency in the catalog, in upstream calls split as {@link #fetchAllRates} describes.
+     * Rates are keyed by upper-cased vs-currency, in the order of the filters or of the catalog.
+     */
+    public Mono<CurrencyRatesResponse> getCatalogRatesAsync(String currencySymbol, List<String> filters) {
+        return Mono.defer(() -> {
+            CurrencyIndex index = catalog.current();
+            String[] targets = vsTargets(index, filters == null ? null : filters.toArray(new String[0]));
+            log.debug("Fetching catalog rates for currency={}, filters={}", currencySymbol, filters);
+
+            return catalogRatesAsync(index, currencySymbol, targets).map(rates -> {
+                Map<String, BigDecimal> filtered = new LinkedHashMap<>(targets.length * 2);
+                for (String target : targets) {
+                    String rateKey = target.toUpperCase(Locale.ROOT);
+                    BigDecimal rate = rates.get(rateKey);
+                    if (rate != null) {
+                        filtered.put(rateKey, rate);
+                    }
+                }
+                return new CurrencyRatesResponse(currencySymbol.toUpperCase(Locale.ROOT), filtered);
+            });
+        });
+    }
+
+    private Mono<Map<String, BigDecimal>> catalogRatesAsync(CurrencyIndex index, String source, String[] vsTargets) {
+        String coinId = index.coinId(source);
+        if (coinId == null) {
+            log.warn("Unknown coin requested: {}", source);
+            return Mono.error(new ResourceNotFoundException("Currency data not found for: " + source));
         }
+        RateCache.Key key = RateCache.Key.of(coinId, vsTargets);
+        return rateCache.get(key, () -> singleFlight.execute(key, () -> fetchRates(coinId, vsTargets)));
+    }
 
+    /**
+     * Fetches the rates of the given coins against the given vs-currencies. Requests for more than
+     * {@code app.cryptoApi.batch.maxIds} coins or {@code maxVsCurrencies} vs-currencies are split into upstream
+     * calls of bounded size, up to {@code concurrency} of them in flight at once, and fail if any of them fails.
+     */
+    public Mono<Map<String, Map<String, BigDecimal>>> fetchAllRates(String[] sources, String[] targets) {
+        if (sources.length <= batchMaxIds && targets.length <= batchMaxVsCurrencies) {
+            return fetchBatch(sources, targets);
+        }
+        List<String[]> idChunks = chunks(sources, batchMaxIds);
+        List<String[]> vsChunks = chunks(targets, batchMaxVsCurrencies);
+        log.debug("Splitting upstream call for {} ids and {} vs-currencies into {} calls",
+                sources.length, targets.length, idChunks.size() * vsChunks.size());
+        return Flux.fromIterable(idChunks)
+                .concatMap(ids -> Flux.fromIterable(vsChunks).map(vs -> new String[][]{ids, vs}))
+                .flatMap(chunk -> fetchBatch(chunk[0], chunk[1]), batchConcurrency)
+                .collect(() -> new HashMap<String, Map<String, BigDecimal>>(), (all, part) ->
+                        part.forEach((id, rates) -> all.computeIfAbsent(id, k -> new HashMap<>()).putAll(rates)))
+                .map(Collections::unmodifiableMap);
+    }
+
+    private Mono<Map<String, Map<String, BigDecimal>>> fetchBatch(String[] sources, String[] targets) {
+        String ids = String.join(",", sources);
         String vsCurrencies = String.join(",", targets);
-        log.debug("Fetching rates for source={} vs={}", source, vsCurrencies);
-
-        Map<String, Map<String, Double>> response = webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .scheme("https")
-                        .host("api.coingecko.com")
-                        .path("/api/v3/simple/price")
-                        .queryParam("ids", source)
-                        .queryParam("vs_currencies", vsCurrencies)
-                        .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        if (response == null || !response.containsKey(source)) {
-            log.warn("No data returned from API for source={}", source);
-            throw new ResourceNotFoundException("Currency data not found for: " + source);
-        }
-
-        Map<String, BigDecimal> rates = response.get(source).entrySet().stream()
-                .collect(Collectors.toMap(
-                        e -> e.getKey().toUpperCase(),
-                        e -> {
-                            Object val = e.getValue();
-                            if (val instanceof Number number) {
-                                return BigDecimal.valueOf(number.doubleValue());
-                            } else {
-                                log.error("API returned a non-numeric value: {}", val);
-                                throw new ResourceNotFoundException("Non-numeric rate value received from API");
-                            }
-                        }
-                ));
-
-        log.debug("Converted rates: {}", rates);
+        log.debug("Fetching rates for sources={} vs={}", ids, vsCurrencies);
+
+        Mono<Map<String, Map<String, BigDecimal>>> call = scheduler.schedule(() -> providers.fetchRates(sources, targets))
+                .retryWhen(Retry.backoff(retryMaxAttempts, retryMinBackoff)
+                        .maxBackoff(retryMaxBackoff)
+                        .jitter(retryJitter)
+                        .filter(CryptoRateService::isRetryable)
+                        .doBeforeRetry(signal -> log.warn("Retrying upstream call for ids={} (attempt {}): {}",
+                                ids, signal.totalRetries() + 1, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+
+        return circuitBreaker.protect(call);
+    }
+
+    private RateMatrix.Row currentRates(SupportedCurrency source, SupportedCurrency[] targets) {
+        return currentRatesAsync(source, targets).block();
+    }
+
+    private Mono<RateMatrix.Row> currentRatesAsync(SupportedCurrency source, SupportedCurrency[] targets) {
+        return lookupAsync(source, targets).map(RateLookup::rates);
+    }
+
+    private Mono<RateLookup> lookupAsync(SupportedCurrency source, SupportedCurrency[] targets) {
+        RateSnapshot servable = servableSnapshot();
+        if (servable != null) {
+            RateMatrix.Row rates = servable.rowFor(source);
+            if (rates != null) {
+                log.debug("Serving rates for source={} from snapshot version={}", source.getCoinId(), servable.version());
+                return Mono.just(new RateLookup(source, targets, rates, "s" + servable.version(),
+                        servable.isStale() ? null : servable.staleAt()));
+            }
+        }
+        RateSnapshot snapshot = snapshotHolder.current();
+        RateCache.Key key = cacheKey(source, targets);
+        Mono<RateLookup> live = crossRateEngine.isEnabled()
+                ? getPivotQuotesAsync().map(quotes -> lookup(source, targets, crossRates(source, quotes),
+                        rateCache.generation(key, quotes)))
+                : getRatesAsync(source.getCoinId(), vsCurrencies(targets)).map(rates -> lookup(source, targets, rates,
+                        rateCache.generation(key, rates)));
+        return live.onErrorResume(CryptoRateService::isUpstreamFailure,
+                error -> lastKnownRates(source, targets, snapshot, error)
+                        .map(rates -> lookup(source, targets, rates, null)));
+    }
+
+    private RateLookup lookup(SupportedCurrency source, SupportedCurrency[] targets, Map<String, BigDecimal> rates,
+                              String generation) {
+        return new RateLookup(source, targets, RateMatrix.Row.of(rates), generation,
+                rateCache.freshUntil(cacheKey(source, targets)));
+    }
+
+    /**
+     * The snapshot readers answer from without fetching: a fresh one, or a warm start restored from an earlier run
+     * until the first live snapshot replaces it, as long as it is no older than {@code lastKnownMaxAge}.
+     */
+    private RateSnapshot servableSnapshot() {
+        RateSnapshot snapshot = snapshotHolder.current();
+        if (snapshot == null || !snapshot.isServable()) {
+            return null;
+        }
+        return snapshot.isStale() && snapshot.fetchedAt().plus(lastKnownMaxAge).isBefore(Instant.now()) ? null : snapshot;
+    }
+
+    private Mono<Map<String, BigDecimal>> lastKnownRates(SupportedCurrency source, SupportedCurrency[] targets,
+                                                         RateSnapshot snapshot, Throwable error) {
+        if (!serveLastKnown) {
+            return Mono.error(error);
+        }
+
+        boolean usable = snapshot != null
+                && !snapshot.fetchedAt().plus(lastKnownMaxAge).isBefore(Instant.now());
+        Map<String, BigDecimal> rates = usable ? snapshot.ratesFor(source.getCoinId()) : null;
+        if (rates == null && crossRateEngine.isEnabled()) {
+            Map<String, BigDecimal> quotes = rateCache.lastKnown(pivotKey());
+            rates = quotes == null ? null : crossRateEngine.deriveRates(source, quotes);
+        } else if (rates == null) {
+            rates = rateCache.lastKnown(RateCache.Key.of(source.getCoinId(), vsCurrencies(targets)));
+        }
+
+        if (rates == null) {
+            return Mono.error(error);
+        }
+        log.warn("Upstream unhealthy ({}), serving last known rates for source={}", error.getMessage(), source.getCoinId());
+        return Mono.just(rates);
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        return error instanceof UpstreamUnavailableException
+                || error instanceof WebClientException
+                || error instanceof TimeoutException;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private static String[] vsCurrencies(SupportedCurrency[] targets) {
+        if (targets.length == 0) {
+            return SUPPORTED_VS_CURRENCIES;
+        }
+        String[] vsCurrencies = new String[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            vsCurrencies[i] = targets[i].getVsCurrency();
+        }
+        return vsCurrencies;
+    }
+
+    private static String[] vsTargets(CurrencyIndex index, String[] targets) {
+        if (targets == null || targets.length == 0) {
+            return index.vsCurrencies();
+        }
+        String[] vsTargets = new String[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            if (!index.isVsCurrency(targets[i])) {
+                log.warn("Unknown vs-currency requested: {}", targets[i]);
+                throw new IllegalArgumentException("Unsupported vs-currency: " + targets[i]);
+            }
+            vsTargets[i] = targets[i].toLowerCase(Locale.ROOT);
+        }
+        return vsTargets;
+    }
+
+    private static List<String[]> chunks(String[] values, int size) {
+        int chunkSize = Math.max(1, size);
+        List<String[]> chunks = new ArrayList<>((values.length + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < values.length; from += chunkSize) {
+            chunks.add(Arrays.copyOfRange(values, from, Math.min(values.length, from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private Map<String, BigDecimal> crossRates(SupportedCurrency source, Map<String, BigDecimal> quotes) {
+        Map<String, BigDecimal> rates = crossRateEngine.deriveRates(source, quotes);
+        if (rates == null) {
+            log.warn("No pivot quote available for source={}", source.getCoinId());
+            throw new ResourceNotFoundException("Currency data not found for: " + source.getCoinId());
+        }
         return rates;
     }
+
+    private Mono<Map<String, BigDecimal>> getPivotQuotesAsync() {
+        String[] ids = crossRateEngine.quotedCoinIds();
+        String[] pivot = {crossRateEngine.getPivot()};
+        RateCache.Key key = pivotKey();
+        return rateCache.get(key, () -> singleFlight.execute(key, () -> fetchAllRates(ids, pivot)
+                .map(response -> {
+                    Map<String, BigDecimal> quotes = crossRateEngine.pivotQuotes(response);
+                    if (quotes.isEmpty()) {
+                        log.warn("No {} quotes returned from API for ids={}", pivot[0], ids);
+                        throw new ResourceNotFoundException("Currency data not found for pivot: " + pivot[0]);
+                    }
+                    rateHistory.record(crossRateEngine.deriveMatrix(quotes));
+                    return quotes;
+                })));
+    }
+
+    private RateCache.Key cacheKey(SupportedCurrency source, SupportedCurrency[] targets) {
+        return crossRateEngine.isEnabled()
+                ? pivotKey()
+                : RateCache.Key.of(source.getCoinId(), vsCurrencies(targets));
+    }
+
+    private RateCache.Key pivotKey() {
+        return RateCache.Key.of(String.join(",", crossRateEngine.quotedCoinIds()), new String[]{crossRateEngine.getPivot()});
+    }
+
+    private Mono<Map<String, BigDecimal>> fetchRates(String source, String[] targets) {
+        return fetchAllRates(new String[]{source}, targets)
+                .map(all -> {
+                    Map<String, BigDecimal> rates = all.get(source);
+                    if (rates == null) {
+                        log.warn("No data returned from API for source={}", source);
+                        throw new ResourceNotFoundException("Currency data not found for: " + source);
+                    }
+                    rateHistory.record(all);
+                    return rates;
+                });
+    }
 }
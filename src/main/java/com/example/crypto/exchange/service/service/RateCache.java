@@ -0,0 +1,203 @@
+package com.example.crypto.exchange.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * TTL cache for upstream rate lookups with stale-while-revalidate semantics.
+ * <p>
+ * Fresh entries are served directly. Entries past their TTL but still inside the stale grace period are
+ * served immediately while a single background refresh replaces them. Anything older is loaded synchronously.
+ */
+@Component
+@Slf4j
+public class RateCache {
+
+    private final Duration ttl;
+    private final Duration staleGrace;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong generations = new AtomicLong();
+
+    @Autowired
+    public RateCache(@Value("${app.cryptoApi.cache.ttl:30s}") Duration ttl,
+                     @Value("${app.cryptoApi.cache.staleGrace:60s}") Duration staleGrace,
+                     @Value("${app.cryptoApi.cache.maxEntries:256}") int maxEntries) {
+        this(ttl, staleGrace, maxEntries, Clock.systemUTC());
+    }
+
+    RateCache(Duration ttl, Duration staleGrace, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.staleGrace = staleGrace;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public Mono<Map<String, BigDecimal>> get(Key key, Supplier<Mono<Map<String, BigDecimal>>> loader) {
+        if (!isEnabled()) {
+            return loader.get();
+        }
+
+        Instant now = clock.instant();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastAccess = now;
+            if (now.isBefore(entry.expiresAt)) {
+                hits.increment();
+                log.debug("Rate cache hit for {}", key);
+                return Mono.just(entry.rates);
+            }
+            if (now.isBefore(entry.expiresAt.plus(staleGrace))) {
+                staleHits.increment();
+                log.debug("Serving stale rates for {} while revalidating", key);
+                revalidate(key, entry, loader);
+                return Mono.just(entry.rates);
+            }
+        }
+
+        misses.increment();
+        log.debug("Rate cache miss for {}", key);
+        return loader.get().map(rates -> put(key, rates));
+    }
+
+    /**
+     * Returns the last value loaded for the key regardless of its age, or {@code null} if it was never loaded or
+     * has been evicted. Used as a fallback while the upstream is unhealthy.
+     */
+    public Map<String, BigDecimal> lastKnown(Key key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.rates;
+    }
+
+    /**
+     * Returns when the cached value for the key stops being fresh, or {@code null} if nothing is cached for it.
+     */
+    public Instant freshUntil(Key key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.expiresAt;
+    }
+
+    /**
+     * Returns a tag for the entry that holds exactly {@code rates} for the key, or {@code null} if the rates were not
+     * served from the current entry. The tag changes whenever the entry is reloaded, so whatever is derived from the
+     * rates can be kept under it.
+     */
+    public String generation(Key key, Map<String, BigDecimal> rates) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.rates == rates ? "c" + entry.generation : null;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private boolean isEnabled() {
+        return maxEntries > 0 && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    private void revalidate(Key key, Entry entry, Supplier<Mono<Map<String, BigDecimal>>> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        // cleared however the refresh ends, so an empty or cancelled load does not block later revalidations
+        loader.get()
+                .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                .doFinally(signal -> entry.refreshing.set(false))
+                .subscribe(
+                        rates -> put(key, rates),
+                        error -> log.warn("Background refresh failed for {}: {}", key, error.getMessage()));
+    }
+
+    private Map<String, BigDecimal> put(Key key, Map<String, BigDecimal> rates) {
+        Instant now = clock.instant();
+        Entry entry = new Entry(Map.copyOf(rates), now.plus(ttl), now, generations.incrementAndGet());
+        entries.put(key, entry);
+        if (entries.size() > maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+        return entry.rates;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maxEntries) {
+            Key eldest = null;
+            Instant eldestAccess = Instant.MAX;
+            for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+                if (e.getValue().lastAccess.isBefore(eldestAccess)) {
+                    eldestAccess = e.getValue().lastAccess;
+                    eldest = e.getKey();
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            entries.remove(eldest);
+            log.debug("Evicted rate cache entry {}", eldest);
+        }
+    }
+
+    public record Key(String source, List<String> vsCurrencies) {
+
+        public static Key of(String source, String[] vsCurrencies) {
+            List<String> normalized = Arrays.stream(vsCurrencies)
+                    .map(v -> v.toLowerCase(Locale.ROOT))
+                    .distinct()
+                    .sorted()
+                    .toList();
+            return new Key(source.toLowerCase(Locale.ROOT), normalized);
+        }
+    }
+
+    private static final class Entry {
+        private final Map<String, BigDecimal> rates;
+        private final Instant expiresAt;
+        private final long generation;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile Instant lastAccess;
+
+        private Entry(Map<String, BigDecimal> rates, Instant expiresAt, Instant lastAccess, long generation) {
+            this.rates = rates;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+            this.generation = generation;
+        }
+    }
+}
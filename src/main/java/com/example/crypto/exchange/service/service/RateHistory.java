@@ -0,0 +1,176 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recent OHLC candles for every (source, target) pair at 1m, 5m and 1h resolution.
+ * <p>
+ * Each pair and resolution owns a fixed-capacity ring of primitive arrays that is allocated up front, so memory use
+ * only depends on the configured capacities. Every recorded rate updates the open candle of all three resolutions in
+ * place; a rate for a later bucket starts a new candle and overwrites the oldest one once the ring is full. Rates
+ * older than the newest candle of a ring are ignored.
+ */
+@Component
+public class RateHistory {
+
+    private final Clock clock;
+    private final CandleRing[][] rings;
+
+    @Autowired
+    public RateHistory(@Value("${app.history.capacity.1m:1440}") int minuteCandles,
+                       @Value("${app.history.capacity.5m:576}") int fiveMinuteCandles,
+                       @Value("${app.history.capacity.1h:720}") int hourCandles) {
+        this(new int[]{minuteCandles, fiveMinuteCandles, hourCandles}, Clock.systemUTC());
+    }
+
+    RateHistory(int[] capacities, Clock clock) {
+        this.clock = clock;
+        int pairs = SupportedCurrency.count() * SupportedCurrency.count();
+        this.rings = new CandleRing[pairs][Interval.values().length];
+        for (int pair = 0; pair < pairs; pair++) {
+            for (Interval interval : Interval.values()) {
+                rings[pair][interval.ordinal()] = new CandleRing(capacities[interval.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Records rates keyed by coin id and then by upper-cased vs-currency, as returned by the upstream.
+     */
+    public void record(Map<String, Map<String, BigDecimal>> rates) {
+        long now = clock.millis();
+        for (Map.Entry<String, Map<String, BigDecimal>> source : rates.entrySet()) {
+            SupportedCurrency from = SupportedCurrency.fromCoinId(source.getKey());
+            if (from != null) {
+                record(from, source.getValue(), now);
+            }
+        }
+    }
+
+    private void record(SupportedCurrency from, Map<String, BigDecimal> rates, long timestamp) {
+        for (Map.Entry<String, BigDecimal> rate : rates.entrySet()) {
+            SupportedCurrency to = SupportedCurrency.lookup(rate.getKey());
+            if (to == null || rate.getValue() == null) {
+                continue;
+            }
+            double value = rate.getValue().doubleValue();
+            CandleRing[] pairRings = rings[pair(from, to)];
+            for (Interval interval : Interval.values()) {
+                pairRings[interval.ordinal()].add(timestamp, value, interval.millis);
+            }
+        }
+    }
+
+    /**
+     * Candles of one pair whose bucket starts within {@code [from, to]}, oldest first.
+     */
+    public List<HistoryResponse.Candle> candles(SupportedCurrency from, SupportedCurrency to, Interval interval,
+                                                Instant start, Instant end) {
+        return rings[pair(from, to)][interval.ordinal()].copy(start.toEpochMilli(), end.toEpochMilli());
+    }
+
+    private static int pair(SupportedCurrency from, SupportedCurrency to) {
+        return from.ordinal() * SupportedCurrency.count() + to.ordinal();
+    }
+
+    public enum Interval {
+        ONE_MINUTE("1m", Duration.ofMinutes(1)),
+        FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+        ONE_HOUR("1h", Duration.ofHours(1));
+
+        private final String label;
+        private final long millis;
+
+        Interval(String label, Duration length) {
+            this.label = label;
+            this.millis = length.toMillis();
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Duration getLength() {
+            return Duration.ofMillis(millis);
+        }
+
+        public static Interval fromLabel(String label) {
+            for (Interval interval : values()) {
+                if (interval.label.equals(label.toLowerCase(Locale.ROOT))) {
+                    return interval;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported history interval: " + label);
+        }
+    }
+
+    /**
+     * Ring of candles stored column-wise; {@code head} is the slot of the newest candle.
+     */
+    private static final class CandleRing {
+        private final long[] starts;
+        private final double[] open;
+        private final double[] high;
+        private final double[] low;
+        private final double[] close;
+        private int head = -1;
+        private int size;
+
+        private CandleRing(int capacity) {
+            this.starts = new long[capacity];
+            this.open = new double[capacity];
+            this.high = new double[capacity];
+            this.low = new double[capacity];
+            this.close = new double[capacity];
+        }
+
+        private synchronized void add(long timestamp, double value, long bucketMillis) {
+            if (starts.length == 0) {
+                return;
+            }
+            long bucket = timestamp - Math.floorMod(timestamp, bucketMillis);
+            if (size > 0 && bucket == starts[head]) {
+                high[head] = Math.max(high[head], value);
+                low[head] = Math.min(low[head], value);
+                close[head] = value;
+                return;
+            }
+            if (size > 0 && bucket < starts[head]) {
+                return;
+            }
+            head = (head + 1) % starts.length;
+            size = Math.min(size + 1, starts.length);
+            starts[head] = bucket;
+            open[head] = value;
+            high[head] = value;
+            low[head] = value;
+            close[head] = value;
+        }
+
+        private synchronized List<HistoryResponse.Candle> copy(long from, long to) {
+            List<HistoryResponse.Candle> candles = new ArrayList<>();
+            for (int i = size - 1; i >= 0; i--) {
+                int slot = Math.floorMod(head - i, starts.length);
+                if (starts[slot] >= from && starts[slot] <= to) {
+                    candles.add(new HistoryResponse.Candle(Instant.ofEpochMilli(starts[slot]),
+                            BigDecimal.valueOf(open[slot]), BigDecimal.valueOf(high[slot]),
+                            BigDecimal.valueOf(low[slot]), BigDecimal.valueOf(close[slot])));
+                }
+            }
+            return candles;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.springframework.http.CacheControl;
+
+import java.time.Instant;
+
+/**
+ * Rates of one source for a normalized set of targets as a lookup found them, before they are digested.
+ *
+ * @param generation tag of the snapshot or rate cache entry the rates were read from, which changes whenever that
+ *                   is replaced, or {@code null} if they were read from neither
+ * @param freshUntil when the rates stop being fresh, or {@code null} if unknown
+ */
+public record RateLookup(SupportedCurrency source, SupportedCurrency[] targets, RateMatrix.Row rates,
+                         String generation, Instant freshUntil) {
+
+    public CacheControl cacheControl() {
+        return VersionedRates.cacheControl(freshUntil);
+    }
+
+    /**
+     * Tags the rates with their {@link RateMatrix.Row#contentDigest content digest}.
+     */
+    public VersionedRates versioned() {
+        return new VersionedRates(source, targets, rates, rates.contentDigest(targets), freshUntil);
+    }
+}
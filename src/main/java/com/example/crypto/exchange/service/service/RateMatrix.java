@@ -0,0 +1,142 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Dense source by target rate table indexed by {@link SupportedCurrency} ordinals.
+ * <p>
+ * All rates live in one array at {@code source.ordinal() * count + target.ordinal()}, so reading a rate is an index
+ * computation rather than two string hash lookups. Missing rates are {@code null}.
+ */
+public final class RateMatrix {
+
+    private final BigDecimal[] rates;
+
+    private RateMatrix(BigDecimal[] rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * Builds the matrix from rates keyed by coin id and then by upper-cased vs-currency. Coins and currencies that
+     * are not supported are ignored.
+     */
+    public static RateMatrix of(Map<String, Map<String, BigDecimal>> rates) {
+        int count = SupportedCurrency.count();
+        BigDecimal[] cells = new BigDecimal[count * count];
+        rates.forEach((coinId, row) -> {
+            SupportedCurrency source = SupportedCurrency.fromCoinId(coinId);
+            if (source != null) {
+                fill(cells, source.ordinal() * count, row);
+            }
+        });
+        return new RateMatrix(cells);
+    }
+
+    public Row row(SupportedCurrency source) {
+        return new Row(rates, source.ordinal() * SupportedCurrency.count());
+    }
+
+    public BigDecimal rate(SupportedCurrency source, SupportedCurrency target) {
+        return rates[source.ordinal() * SupportedCurrency.count() + target.ordinal()];
+    }
+
+    private static void fill(BigDecimal[] cells, int offset, Map<String, BigDecimal> row) {
+        for (int i = 0; i < SupportedCurrency.count(); i++) {
+            cells[offset + i] = row.get(SupportedCurrency.byOrdinal(i).getRateKey());
+        }
+    }
+
+    /**
+     * Rates of one source currency indexed by target ordinal.
+     */
+    public static final class Row {
+        private static final int DIGEST_BYTES = 16;
+        private static final Base64.Encoder DIGEST_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+        private final BigDecimal[] rates;
+        private final int offset;
+
+        private Row(BigDecimal[] rates, int offset) {
+            this.rates = rates;
+            this.offset = offset;
+        }
+
+        public static Row of(Map<String, BigDecimal> rates) {
+            BigDecimal[] cells = new BigDecimal[SupportedCurrency.count()];
+            fill(cells, 0, rates);
+            return new Row(cells, 0);
+        }
+
+        public BigDecimal get(SupportedCurrency target) {
+            return rates[offset + target.ordinal()];
+        }
+
+        /**
+         * Returns the rates for the given targets keyed by rate key, or every available rate when {@code targets}
+         * is empty.
+         */
+        public Map<String, BigDecimal> toMap(SupportedCurrency[] targets) {
+            if (targets.length == 0) {
+                Map<String, BigDecimal> all = new LinkedHashMap<>(SupportedCurrency.count() * 2);
+                for (int i = 0; i < SupportedCurrency.count(); i++) {
+                    BigDecimal rate = rates[offset + i];
+                    if (rate != null) {
+                        all.put(SupportedCurrency.byOrdinal(i).getRateKey(), rate);
+                    }
+                }
+                return all;
+            }
+            Map<String, BigDecimal> filtered = new LinkedHashMap<>(targets.length * 2);
+            for (SupportedCurrency target : targets) {
+                BigDecimal rate = rates[offset + target.ordinal()];
+                if (rate != null) {
+                    filtered.put(target.getRateKey(), rate);
+                }
+            }
+            return filtered;
+        }
+
+        /**
+         * SHA-256 digest of the rates {@link #toMap(SupportedCurrency[])} would return, truncated to 128 bits and
+         * base64url encoded. It depends on nothing but the rates, so every instance derives the same digest for
+         * the same rates across restarts. Rates that differ only in scale digest differently, as they are also
+         * rendered differently.
+         */
+        public String contentDigest(SupportedCurrency[] targets) {
+            MessageDigest digest = sha256();
+            int count = targets.length == 0 ? SupportedCurrency.count() : targets.length;
+            for (int i = 0; i < count; i++) {
+                int ordinal = targets.length == 0 ? i : targets[i].ordinal();
+                BigDecimal rate = rates[offset + ordinal];
+                if (rate != null) {
+                    digest.update((byte) ordinal);
+                    digest.update(rate.toString().getBytes(StandardCharsets.US_ASCII));
+                    digest.update((byte) 0);
+                }
+            }
+            return DIGEST_ENCODER.encodeToString(Arrays.copyOf(digest.digest(), DIGEST_BYTES));
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return toMap(new SupportedCurrency[0]).toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Polls the rates of every supported pair in the background and publishes them as the shared {@link RateSnapshot}.
+ * The first poll runs as soon as the application has started, so a warm-start snapshot restored from the snapshot
+ * file is replaced by live rates without readers having to miss.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cryptoApi.poller.enabled", havingValue = "true")
+@Slf4j
+public class RatePoller {
+
+    private static final String[] COIN_IDS = Arrays.stream(SupportedCurrency.values())
+            .map(SupportedCurrency::getCoinId)
+            .toArray(String[]::new);
+
+    private static final String[] VS_CURRENCIES = Arrays.stream(SupportedCurrency.values())
+            .map(SupportedCurrency::getVsCurrency)
+            .toArray(String[]::new);
+
+    private final CryptoRateService cryptoRateService;
+    private final RateSnapshotHolder snapshotHolder;
+    private final CrossRateEngine crossRateEngine;
+
+    public RatePoller(CryptoRateService cryptoRateService, RateSnapshotHolder snapshotHolder,
+                      CrossRateEngine crossRateEngine) {
+        this.cryptoRateService = cryptoRateService;
+        this.snapshotHolder = snapshotHolder;
+        this.crossRateEngine = crossRateEngine;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cryptoApi.poller.interval:PT10S}")
+    public void poll() {
+        try {
+            Map<String, Map<String, BigDecimal>> rates = fetch();
+            if (rates == null || rates.isEmpty()) {
+                log.warn("Rate poll returned no data, keeping snapshot version={}", currentVersion());
+                return;
+            }
+            snapshotHolder.publish(rates, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Rate poll failed, keeping snapshot version={}: {}", currentVersion(), e.getMessage());
+        }
+    }
+
+    private Map<String, Map<String, BigDecimal>> fetch() {
+        if (crossRateEngine.isEnabled()) {
+            Map<String, Map<String, BigDecimal>> response = cryptoRateService
+                    .fetchAllRates(crossRateEngine.quotedCoinIds(), new String[]{crossRateEngine.getPivot()})
+                    .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                    .block();
+            if (response == null) {
+                return null;
+            }
+            return crossRateEngine.deriveMatrix(crossRateEngine.pivotQuotes(response));
+        }
+        return cryptoRateService.fetchAllRates(COIN_IDS, VS_CURRENCIES)
+                .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                .block();
+    }
+
+    private long currentVersion() {
+        RateSnapshot snapshot = snapshotHolder.current();
+        return snapshot == null ? 0 : snapshot.version();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of rate responses: their ETag and their body serialized to JSON.
+ * <p>
+ * The body is a Jackson {@link RawValue}, so it goes through the same message converter and content negotiation as
+ * any other response object, but is written out as the UTF-8 bytes cached with it instead of being serialized again.
+ * <p>
+ * Entries are keyed by the source, the normalized targets and the {@link RateLookup#generation() generation} of the
+ * snapshot or rate cache entry the rates were read from, so a hit is found before the rates are digested, and
+ * neither the digest nor the body is computed again until that snapshot or entry is replaced. Rates without a
+ * generation are digested for every request. Every snapshot published to the {@link RateSnapshotHolder} drops all
+ * entries, as they are unlikely to be requested again.
+ * <p>
+ * Rates looked up through the currency catalog instead of the rate matrix are {@link #render rendered} for every
+ * request and tagged with a digest of the rendered body.
+ */
+@Component
+@Slf4j
+public class RateResponseCache {
+
+    private static final int DIGEST_BYTES = 16;
+    private static final Base64.Encoder DIGEST_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Map<String, Response> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RateResponseCache(ObjectMapper objectMapper, RateSnapshotHolder snapshotHolder,
+                             @Value("${app.cryptoApi.responseCache.maxEntries:512}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+                return size() > RateResponseCache.this.maxEntries;
+            }
+        };
+        snapshotHolder.updates().subscribe(snapshot -> invalidate());
+    }
+
+    /**
+     * Returns the response for the looked up rates, digesting them only if no response for the same generation is
+     * cached.
+     */
+    public Response get(RateLookup lookup) {
+        if (maxEntries <= 0 || lookup.generation() == null) {
+            misses.increment();
+            return new Response(lookup.versioned());
+        }
+        String key = key(lookup);
+        Response response;
+        synchronized (entries) {
+            response = entries.get(key);
+        }
+        if (response != null) {
+            hits.increment();
+            return response;
+        }
+        misses.increment();
+        response = new Response(lookup.versioned());
+        synchronized (entries) {
+            entries.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Renders rates that are not part of the rate matrix, e.g. those of a catalog coin, without caching them. The
+     * ETag is a digest of the rendered body, so it still matches as long as the rates do.
+     */
+    public Response render(CurrencyRatesResponse rates) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(rates);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize rates for " + rates.getSource(), e);
+        }
+        byte[] digest = sha256().digest(json.getBytes(StandardCharsets.UTF_8));
+        String etag = '"' + rates.getSource() + '-' + DIGEST_ENCODER.encodeToString(Arrays.copyOf(digest, DIGEST_BYTES)) + '"';
+        return new Response(etag, new RawValue(new SerializedString(json)));
+    }
+
+    public void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        log.debug("Dropped rendered rate responses");
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static String key(RateLookup lookup) {
+        StringBuilder key = new StringBuilder(32).append(lookup.generation()).append('/').append(lookup.source().name());
+        for (SupportedCurrency target : lookup.targets()) {
+            key.append('.').append(target.ordinal());
+        }
+        return key.toString();
+    }
+
+    private RawValue serialize(VersionedRates rates) {
+        try {
+            return new RawValue(new SerializedString(objectMapper.writeValueAsString(rates.toResponse())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize rates for " + rates.source(), e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * ETag and JSON body of the response for one set of rates. The body is rendered when it is first needed, as a
+     * client that already holds the current ETag is answered without it.
+     */
+    public final class Response {
+        private final VersionedRates rates;
+        private final String etag;
+        private volatile RawValue body;
+
+        private Response(VersionedRates rates) {
+            this.rates = rates;
+            this.etag = rates.etag();
+        }
+
+        private Response(String etag, RawValue body) {
+            this.rates = null;
+            this.etag = etag;
+            this.body = body;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public RawValue body() {
+            RawValue rendered = body;
+            if (rendered == null) {
+                rendered = serialize(rates);
+                body = rendered;
+            }
+            return rendered;
+        }
+    }
+}
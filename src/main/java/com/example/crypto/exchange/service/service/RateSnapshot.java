@@ -0,0 +1,49 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable set of rates for every polled source coin, keyed by coin id and then by upper-cased vs-currency.
+ * The same rates are also laid out as a {@link RateMatrix} for index-based reads on the request path.
+ *
+ * @param warmStart whether this snapshot was restored from an earlier run to be served until the first live one
+ *                  replaces it, even though it is already stale
+ */
+public record RateSnapshot(long version, Instant fetchedAt, Instant staleAt, Map<String, Map<String, BigDecimal>> rates,
+                           RateMatrix matrix, boolean warmStart) {
+
+    public RateSnapshot(long version, Instant fetchedAt, Instant staleAt, Map<String, Map<String, BigDecimal>> rates) {
+        this(version, fetchedAt, staleAt, rates, false);
+    }
+
+    public RateSnapshot(long version, Instant fetchedAt, Instant staleAt, Map<String, Map<String, BigDecimal>> rates,
+                        boolean warmStart) {
+        this(version, fetchedAt, staleAt, Map.copyOf(rates), RateMatrix.of(rates), warmStart);
+    }
+
+    public boolean isStale() {
+        return !Instant.now().isBefore(staleAt);
+    }
+
+    /**
+     * Whether readers answer from this snapshot instead of fetching: while it is fresh, or as a warm start.
+     */
+    public boolean isServable() {
+        return warmStart || !isStale();
+    }
+
+    public Map<String, BigDecimal> ratesFor(String coinId) {
+        return rates.get(coinId);
+    }
+
+    /**
+     * Returns the dense rate row of a source, or {@code null} if the snapshot has no rates for it.
+     */
+    public RateMatrix.Row rowFor(SupportedCurrency source) {
+        return rates.containsKey(source.getCoinId()) ? matrix.row(source) : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.crypto.exchange.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Publishes the latest {@link RateSnapshot}. Readers only perform a volatile read; writers are serialized.
+ * Every published snapshot is also multicast to {@link #updates()} subscribers and recorded in the
+ * {@link RateHistory}.
+ */
+@Component
+@Slf4j
+public class RateSnapshotHolder {
+
+    private final Duration staleAfter;
+    private final RateHistory rateHistory;
+    private final Sinks.Many<RateSnapshot> sink = Sinks.many().replay().latest();
+
+    private volatile RateSnapshot current;
+
+    public RateSnapshotHolder(@Value("${app.cryptoApi.poller.staleAfter:30s}") Duration staleAfter,
+                              RateHistory rateHistory) {
+        this.staleAfter = staleAfter;
+        this.rateHistory = rateHistory;
+    }
+
+    public RateSnapshot current() {
+        return current;
+    }
+
+    public Flux<RateSnapshot> updates() {
+        return sink.asFlux();
+    }
+
+    /**
+     * Publishes rates recovered from an earlier run unless live rates were already published. The snapshot keeps
+     * its original {@code fetchedAt} and goes stale {@code staleAfter} after it like any other. As a
+     * {@code warmStart} it is still served, marked uncacheable, until the first live snapshot replaces it; otherwise
+     * readers fetch live rates and only fall back to it, as last known rates, while the upstream is unavailable.
+     */
+    public synchronized RateSnapshot restore(Map<String, Map<String, BigDecimal>> rates, Instant fetchedAt,
+                                             boolean warmStart) {
+        if (current != null) {
+            return current;
+        }
+        RateSnapshot snapshot = new RateSnapshot(1, fetchedAt, fetchedAt.plus(staleAfter), rates, warmStart);
+        current = snapshot;
+        sink.tryEmitNext(snapshot);
+        log.debug("Restored rate snapshot fetched at {} for sources={}", fetchedAt, rates.keySet());
+        return snapshot;
+    }
+
+    public synchronized RateSnapshot publish(Map<String, Map<String, BigDecimal>> rates, Instant fetchedAt) {
+        RateSnapshot previous = current;
+        long version = previous == null ? 1 : previous.version() + 1;
+        RateSnapshot snapshot = new RateSnapshot(version, fetchedAt, fetchedAt.plus(staleAfter), rates);
+        current = snapshot;
+        sink.tryEmitNext(snapshot);
+        rateHistory.record(rates);
+        log.debug("Published rate snapshot version={} for sources={}", version, rates.keySet());
+        return snapshot;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.crypto.exchange.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the latest {@link RateSnapshot} in a small local binary file so a restarted instance can serve rates
+ * straight away instead of sending its first requests to the upstream.
+ * <p>
+ * Published snapshots are written at most once per {@code writeInterval}, to a temporary file that then replaces the
+ * previous one. On startup the file is memory-mapped and, if it is younger than {@code maxAge}, restored into the
+ * {@link RateSnapshotHolder}, where it also serves as the last known rates while the upstream is down. With the
+ * poller enabled the restored snapshot is a warm start: readers are answered from it until the poller's first run,
+ * which starts right away in the background, publishes live rates.
+ */
+@Component
+@Slf4j
+public class RateSnapshotStore {
+
+    private static final int MAGIC = 0x43525331; // "CRS1"
+
+    private final boolean enabled;
+    private final boolean warmStart;
+    private final Path path;
+    private final Duration writeInterval;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private Instant lastWriteAt = Instant.MIN;
+    private Instant lastWrittenFetchedAt = Instant.MIN;
+
+    @Autowired
+    public RateSnapshotStore(RateSnapshotHolder snapshotHolder,
+                             @Value("${app.cryptoApi.snapshotFile.enabled:false}") boolean enabled,
+                             @Value("${app.cryptoApi.poller.enabled:false}") boolean pollerEnabled,
+                             @Value("${app.cryptoApi.snapshotFile.path:data/rates.snapshot}") Path path,
+                             @Value("${app.cryptoApi.snapshotFile.writeInterval:60s}") Duration writeInterval,
+                             @Value("${app.cryptoApi.circuitBreaker.lastKnownMaxAge:24h}") Duration maxAge) {
+        this(snapshotHolder, enabled, pollerEnabled, path, writeInterval, maxAge, Clock.systemUTC());
+    }
+
+    RateSnapshotStore(RateSnapshotHolder snapshotHolder, boolean enabled, boolean warmStart, Path path,
+                      Duration writeInterval, Duration maxAge, Clock clock) {
+        this.enabled = enabled;
+        this.warmStart = warmStart;
+        this.path = path;
+        this.writeInterval = writeInterval;
+        this.maxAge = maxAge;
+        this.clock = clock;
+        if (enabled) {
+            restoreInto(snapshotHolder);
+            snapshotHolder.updates().subscribe(this::persist);
+        }
+    }
+
+    private void restoreInto(RateSnapshotHolder snapshotHolder) {
+        Stored stored = load();
+        if (stored == null) {
+            return;
+        }
+        Duration age = Duration.between(stored.fetchedAt(), clock.instant());
+        if (age.compareTo(maxAge) > 0) {
+            log.info("Ignoring rate snapshot file {} fetched {} ago, older than {}", path, age, maxAge);
+            return;
+        }
+        lastWrittenFetchedAt = stored.fetchedAt();
+        snapshotHolder.restore(stored.rates(), stored.fetchedAt(), warmStart);
+        if (warmStart) {
+            log.warn("Serving {} sources from rate snapshot file {} fetched {} ago until the first live refresh",
+                    stored.rates().size(), path, age);
+        } else {
+            log.info("Restored {} sources from rate snapshot file {} fetched {} ago as last known rates",
+                    stored.rates().size(), path, age);
+        }
+    }
+
+    synchronized void persist(RateSnapshot snapshot) {
+        Instant now = clock.instant();
+        if (!snapshot.fetchedAt().isAfter(lastWrittenFetchedAt) || now.isBefore(lastWriteAt.plus(writeInterval))) {
+            return;
+        }
+        try {
+            write(path, snapshot.rates(), snapshot.fetchedAt());
+            lastWriteAt = now;
+            lastWrittenFetchedAt = snapshot.fetchedAt();
+            log.debug("Wrote rate snapshot version={} to {}", snapshot.version(), path);
+        } catch (IOException e) {
+            log.warn("Failed to write rate snapshot file {}: {}", path, e.getMessage());
+        }
+    }
+
+    Stored load() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } catch (NoSuchFileException e) {
+            log.debug("No rate snapshot file at {}", path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable rate snapshot file {}: {}", path, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Layout: magic, fetchedAt epoch millis, source count, then per source its coin id and rate count followed by
+     * each vs-currency with the scale and unscaled bytes of its rate. Strings are length-prefixed UTF-8.
+     */
+    static void write(Path path, Map<String, Map<String, BigDecimal>> rates, Instant fetchedAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeLong(fetchedAt.toEpochMilli());
+            out.writeInt(rates.size());
+            for (Map.Entry<String, Map<String, BigDecimal>> source : rates.entrySet()) {
+                writeString(out, source.getKey());
+                out.writeInt(source.getValue().size());
+                for (Map.Entry<String, BigDecimal> rate : source.getValue().entrySet()) {
+                    writeString(out, rate.getKey());
+                    byte[] unscaled = rate.getValue().unscaledValue().toByteArray();
+                    out.writeInt(rate.getValue().scale());
+                    out.writeShort(unscaled.length);
+                    out.write(unscaled);
+                }
+            }
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static Stored read(ByteBuffer in) {
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a rate snapshot file");
+        }
+        Instant fetchedAt = Instant.ofEpochMilli(in.getLong());
+        int sources = in.getInt();
+        Map<String, Map<String, BigDecimal>> rates = new LinkedHashMap<>(sources * 2);
+        Map<String, String> symbols = new HashMap<>();
+        for (int i = 0; i < sources; i++) {
+            String coinId = readString(in);
+            int count = in.getInt();
+            Map<String, BigDecimal> row = new LinkedHashMap<>(count * 2);
+            for (int j = 0; j < count; j++) {
+                String symbol = symbols.computeIfAbsent(readString(in), s -> s);
+                int scale = in.getInt();
+                byte[] unscaled = new byte[in.getShort()];
+                in.get(unscaled);
+                row.put(symbol, new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            rates.put(coinId, row);
+        }
+        return new Stored(fetchedAt, rates);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record Stored(Instant fetchedAt, Map<String, Map<String, BigDecimal>> rates) {
+    }
+}
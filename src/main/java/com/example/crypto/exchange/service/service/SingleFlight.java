@@ -0,0 +1,86 @@
+package com.example.crypto.exchange.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent identical upstream calls. While a call for a key is in flight, every other caller
+ * with the same key subscribes to the same pending {@link Mono} instead of issuing its own request.
+ * <p>
+ * The shared call runs with the {@link UpstreamScheduler.Priority} of the caller that started it, so flights are
+ * kept apart by priority: an interactive caller never waits behind a background refresh that the scheduler may
+ * shed, while a background caller may join an interactive call already in flight.
+ * <p>
+ * A key is released as soon as its call completes, or once every caller waiting on it has cancelled. The shared
+ * call itself is not cancelled then and runs on until the WebClient response timeout at the latest, but later
+ * callers no longer wait for it.
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    private final Map<Flight, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(Object key, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            UpstreamScheduler.Priority priority = UpstreamScheduler.priorityOf(context);
+            if (priority == UpstreamScheduler.Priority.BACKGROUND) {
+                Mono<T> interactive = (Mono<T>) inFlight.get(new Flight(key, UpstreamScheduler.Priority.INTERACTIVE));
+                if (interactive != null) {
+                    coalesced.increment();
+                    log.debug("Joined in-flight interactive upstream call for {}", key);
+                    return interactive;
+                }
+            }
+
+            Flight flight = new Flight(key, priority);
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            AtomicInteger waiting = new AtomicInteger();
+            // released before the result reaches subscribers so a caller arriving afterwards starts a fresh call
+            Runnable release = () -> inFlight.remove(flight, self.get());
+            Mono<T> shared = Mono.defer(call)
+                    .doOnSuccess(value -> release.run())
+                    .doOnError(error -> release.run())
+                    .cache();
+            Mono<T> candidate = Mono.defer(() -> {
+                waiting.incrementAndGet();
+                return shared.doFinally(signal -> {
+                    if (waiting.decrementAndGet() == 0 && signal == SignalType.CANCEL) {
+                        release.run();
+                    }
+                });
+            });
+            self.set(candidate);
+
+            Mono<T> existing = (Mono<T>) inFlight.putIfAbsent(flight, candidate);
+            if (existing != null) {
+                coalesced.increment();
+                log.debug("Joined in-flight upstream call for {}", key);
+                return existing;
+            }
+            return candidate;
+        });
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private record Flight(Object key, UpstreamScheduler.Priority priority) {
+    }
+}
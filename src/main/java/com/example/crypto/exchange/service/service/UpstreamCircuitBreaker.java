@@ -0,0 +1,118 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.UpstreamThrottledException;
+import com.example.crypto.exchange.service.exception.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Consecutive-failure circuit breaker around upstream calls.
+ * <p>
+ * After {@code failureThreshold} failures in a row the breaker opens and calls fail fast with
+ * {@link UpstreamUnavailableException}. Once {@code openDuration} has passed a single trial call is let through:
+ * success closes the breaker, failure opens it again.
+ */
+@Component
+@Slf4j
+public class UpstreamCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    @Autowired
+    public UpstreamCircuitBreaker(@Value("${app.cryptoApi.circuitBreaker.failureThreshold:5}") int failureThreshold,
+                                  @Value("${app.cryptoApi.circuitBreaker.openDuration:30s}") Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    UpstreamCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new UpstreamUnavailableException("Upstream rate provider is unavailable"));
+            }
+            return call
+                    .doOnSuccess(value -> onSuccess())
+                    .doOnError(error -> {
+                        if (error instanceof UpstreamThrottledException) {
+                            // rejected by our own scheduler or rate limited, the upstream itself is healthy
+                            onCancel();
+                        } else {
+                            onFailure(error);
+                        }
+                    })
+                    .doOnCancel(this::onCancel);
+        });
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                    return false;
+                }
+                log.info("Circuit breaker half-open, letting a trial upstream call through");
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker closed after successful upstream call");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure(Throwable error) {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker opened after {} consecutive upstream failures, last: {}",
+                        consecutiveFailures, error.getMessage());
+            }
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    private synchronized void onCancel() {
+        trialInFlight = false;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.UpstreamThrottledException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for every outbound upstream call.
+ * <p>
+ * Calls take a token from a bucket refilled at {@code permitsPerSecond} up to {@code burst}. Without a token they
+ * wait in a bounded queue where interactive calls are served before background refreshes. A call whose expected wait
+ * exceeds {@code latencyBudget}, or that finds the queue full, is rejected straight away with
+ * {@link UpstreamThrottledException} instead of queueing; a full queue makes room for an interactive call by
+ * rejecting the newest background one. A 429 from the upstream empties the bucket and pauses all calls for its
+ * {@code Retry-After}.
+ * <p>
+ * The priority is read from the Reactor context, see {@link #withPriority(Priority)}; calls default to interactive.
+ */
+@Component
+@Slf4j
+public class UpstreamScheduler {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    private static final String PRIORITY_KEY = UpstreamScheduler.class.getName() + ".priority";
+
+    private final double permitsPerNano;
+    private final int burst;
+    private final int maxQueue;
+    private final long latencyBudgetNanos;
+    private final Duration defaultRetryAfter;
+
+    private final ArrayDeque<Waiter> interactive = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> background = new ArrayDeque<>();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+    private boolean drainScheduled;
+
+    public UpstreamScheduler(@Value("${app.cryptoApi.scheduler.permitsPerSecond:5}") double permitsPerSecond,
+                             @Value("${app.cryptoApi.scheduler.burst:10}") int burst,
+                             @Value("${app.cryptoApi.scheduler.maxQueue:100}") int maxQueue,
+                             @Value("${app.cryptoApi.scheduler.latencyBudget:2s}") Duration latencyBudget,
+                             @Value("${app.cryptoApi.scheduler.defaultRetryAfter:10s}") Duration defaultRetryAfter) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxQueue = maxQueue;
+        this.latencyBudgetNanos = latencyBudget.toNanos();
+        this.defaultRetryAfter = defaultRetryAfter;
+        this.tokens = burst;
+    }
+
+    /**
+     * Marks upstream calls made by the decorated publisher with the given priority.
+     */
+    public static Function<Context, Context> withPriority(Priority priority) {
+        return context -> context.put(PRIORITY_KEY, priority);
+    }
+
+    /**
+     * Priority of upstream calls made under the given context.
+     */
+    public static Priority priorityOf(ContextView context) {
+        return context.getOrDefault(PRIORITY_KEY, Priority.INTERACTIVE);
+    }
+
+    public <T> Mono<T> schedule(Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            Priority priority = priorityOf(context);
+            return Mono.<Void>create(sink -> admit(priority, sink))
+                    .then(Mono.defer(call))
+                    .onErrorMap(WebClientResponseException.TooManyRequests.class, this::onRateLimited);
+        });
+    }
+
+    public synchronized int getQueueDepth(Priority priority) {
+        return queue(priority).size();
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public double getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    private void admit(Priority priority, MonoSink<Void> sink) {
+        Waiter waiter = new Waiter(sink, priority, System.nanoTime());
+        UpstreamThrottledException rejection = null;
+        Waiter evicted = null;
+        boolean admitted = false;
+        synchronized (this) {
+            refill(waiter.enqueuedAt);
+            if (interactive.isEmpty() && background.isEmpty() && waiter.enqueuedAt >= pausedUntil && tokens >= 1) {
+                tokens--;
+                waits.increment();
+                admitted = true;
+            } else {
+                long expectedWait = expectedWaitNanos(priority, waiter.enqueuedAt);
+                if (expectedWait > latencyBudgetNanos) {
+                    rejection = throttled("Upstream request would wait longer than its latency budget", expectedWait);
+                } else if (interactive.size() + background.size() >= maxQueue) {
+                    if (priority == Priority.INTERACTIVE && !background.isEmpty()) {
+                        evicted = background.pollLast();
+                    } else {
+                        rejection = throttled("Upstream request queue is full", expectedWait);
+                    }
+                }
+                if (rejection == null) {
+                    queue(priority).addLast(waiter);
+                    sink.onCancel(() -> cancel(waiter));
+                    scheduleDrain(waiter.enqueuedAt);
+                }
+            }
+        }
+        if (evicted != null) {
+            evicted.sink.error(throttled("Upstream request queue is full", latencyBudgetNanos));
+        }
+        if (rejection != null) {
+            sink.error(rejection);
+        } else if (admitted) {
+            sink.success();
+        }
+    }
+
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            long now = System.nanoTime();
+            refill(now);
+            while (now >= pausedUntil && tokens >= 1) {
+                Waiter next = !interactive.isEmpty() ? interactive.pollFirst() : background.pollFirst();
+                if (next == null) {
+                    break;
+                }
+                if (now - next.enqueuedAt > latencyBudgetNanos) {
+                    expired.add(next);
+                    continue;
+                }
+                tokens--;
+                waits.increment();
+                waitNanos.add(now - next.enqueuedAt);
+                granted.add(next);
+            }
+            if (!interactive.isEmpty() || !background.isEmpty()) {
+                scheduleDrain(now);
+            }
+        }
+        expired.forEach(waiter -> waiter.sink.error(
+                throttled("Upstream request exceeded its latency budget while queued", latencyBudgetNanos)));
+        granted.forEach(waiter -> waiter.sink.success());
+    }
+
+    private Throwable onRateLimited(WebClientResponseException.TooManyRequests error) {
+        Duration retryAfter = retryAfter(error.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        rateLimited.increment();
+        synchronized (this) {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + retryAfter.toNanos());
+            tokens = 0;
+        }
+        log.warn("Upstream rate limit reached, pausing upstream calls for {}", retryAfter);
+        return new UpstreamThrottledException("Upstream rate limit reached", retryAfter);
+    }
+
+    private Duration retryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return defaultRetryAfter;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ignored) {
+                return defaultRetryAfter;
+            }
+        }
+    }
+
+    private synchronized void cancel(Waiter waiter) {
+        queue(waiter.priority).remove(waiter);
+    }
+
+    /**
+     * Time until a call of the given priority would get a token, counting the calls queued ahead of it.
+     */
+    private long expectedWaitNanos(Priority priority, long now) {
+        int ahead = priority == Priority.INTERACTIVE ? interactive.size() : interactive.size() + background.size();
+        double missing = ahead + 1 - tokens;
+        long untilTokens = missing <= 0 ? 0 : (long) Math.ceil(missing / permitsPerNano);
+        return Math.max(0, pausedUntil - now) + untilTokens;
+    }
+
+    private void scheduleDrain(long now) {
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        long delay = Math.max(pausedUntil - now, tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano));
+        Schedulers.parallel().schedule(this::drain, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+
+    private ArrayDeque<Waiter> queue(Priority priority) {
+        return priority == Priority.INTERACTIVE ? interactive : background;
+    }
+
+    private UpstreamThrottledException throttled(String message, long waitNanos) {
+        shed.increment();
+        return new UpstreamThrottledException(message, Duration.ofNanos(waitNanos));
+    }
+
+    private record Waiter(MonoSink<Void> sink, Priority priority, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Rates of one source for a normalized set of targets, with what HTTP caching needs to validate them.
+ *
+ * @param version    {@link RateMatrix.Row#contentDigest content digest} of the rates for these targets
+ * @param freshUntil when the rates stop being fresh, or {@code null} if unknown
+ */
+public record VersionedRates(SupportedCurrency source, SupportedCurrency[] targets, RateMatrix.Row rates,
+                             String version, Instant freshUntil) {
+
+    /**
+     * Strong entity tag. Requests for the same targets in any order or case share it, which is safe because
+     * {@link #toResponse()} always renders targets in the same order. It is derived from the rates alone, so it
+     * stays valid across restarts and instances behind a shared cache.
+     */
+    public String etag() {
+        StringBuilder etag = new StringBuilder(32).append('"').append(source.name()).append('-');
+        if (targets.length == 0) {
+            etag.append('*');
+        }
+        for (SupportedCurrency target : targets) {
+            etag.append(Integer.toString(target.ordinal(), 36)).append('.');
+        }
+        return etag.append('-').append(version).append('"').toString();
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl(freshUntil);
+    }
+
+    static CacheControl cacheControl(Instant freshUntil) {
+        if (freshUntil == null) {
+            return CacheControl.noCache();
+        }
+        Duration remaining = Duration.between(Instant.now(), freshUntil);
+        return CacheControl.maxAge(remaining.isNegative() ? Duration.ZERO : remaining);
+    }
+
+    public CurrencyRatesResponse toResponse() {
+        return new CurrencyRatesResponse(source.name(), rates.toMap(targets));
+    }
+}
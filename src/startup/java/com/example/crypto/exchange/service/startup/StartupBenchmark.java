@@ -0,0 +1,260 @@
+package com.example.crypto.exchange.service.startup;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Starts the packaged service in several launch modes and reports, per run, the time from process start to the
+ * first successful {@code GET /currencies/BTC} and the resident set size at that moment. The upstream is a local
+ * {@link CoinGeckoStubServer}, so neither the network nor CoinGecko's rate limit affects the numbers.
+ * <p>
+ * Usage: {@code StartupBenchmark <boot.jar> <native-image> <modes> <runs>}, where modes is a comma separated list of
+ * {@code jvm}, {@code jvm-cds}, {@code aot}, {@code aot-cds} and {@code native}. JVM modes run from the unpacked jar,
+ * which class data sharing needs; the {@code -cds} modes first make one untimed training run that dumps a dynamic
+ * AppCDS archive next to the exploded jar. {@code aot} modes need a jar built with {@code -Paot} or
+ * {@code -Pnative}, and {@code native} the image built with {@code -Pnative}; modes whose artifact is missing are
+ * skipped. RSS is read from {@code /proc} and reported as -1 elsewhere.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIB = "BOOT-INF/lib/";
+
+    private final Path jar;
+    private final Path nativeImage;
+    private final Path workDir;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private Path exploded;
+    private String mainClass;
+    private boolean aotProcessed;
+
+    private StartupBenchmark(Path jar, Path nativeImage) {
+        this.jar = jar;
+        this.nativeImage = nativeImage;
+        this.workDir = jar.toAbsolutePath().getParent().resolve("startup");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: StartupBenchmark <boot.jar> <native-image> <modes> <runs>");
+            System.exit(2);
+        }
+        StartupBenchmark benchmark = new StartupBenchmark(Path.of(args[0]), Path.of(args[1]));
+        int runs = Integer.parseInt(args[3]);
+        boolean failed = false;
+        try (CoinGeckoStubServer stub = CoinGeckoStubServer.start()) {
+            for (String mode : args[2].split(",")) {
+                failed |= !benchmark.run(mode.trim(), runs, stub);
+            }
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private boolean run(String mode, int runs, CoinGeckoStubServer stub) throws Exception {
+        List<String> command = command(mode);
+        if (command == null) {
+            return true;
+        }
+        Path archive = workDir.resolve(mode + ".jsa");
+        if (mode.endsWith("-cds")) {
+            Files.deleteIfExists(archive);
+            List<String> training = new ArrayList<>(command);
+            training.add(1, "-XX:ArchiveClassesAtExit=" + archive);
+            if (measure(training, stub) == null || !Files.exists(archive)) {
+                System.out.printf("FAIL  %-8s training run did not produce %s%n", mode, archive);
+                return false;
+            }
+            command.add(1, "-XX:SharedArchiveFile=" + archive);
+        }
+
+        long[] millis = new long[runs];
+        long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = measure(command, stub);
+            if (result == null) {
+                System.out.printf("FAIL  %-8s run %d did not answer within %ds%n", mode, i + 1,
+                        STARTUP_TIMEOUT.toSeconds());
+                return false;
+            }
+            millis[i] = result[0];
+            rss[i] = result[1];
+            System.out.printf("      %-8s run %d  first response %5d ms  rss %6.1f MB%n",
+                    mode, i + 1, millis[i], rss[i] / 1024.0);
+        }
+        System.out.printf("%-14s median %5d ms  min %5d ms  rss %6.1f MB%n",
+                mode, median(millis), Arrays.stream(millis).min().orElse(0), median(rss) / 1024.0);
+        return true;
+    }
+
+    /**
+     * Returns the command line of a mode without the application arguments, or {@code null} to skip the mode.
+     */
+    private List<String> command(String mode) throws IOException {
+        if (mode.equals("native")) {
+            if (!Files.isExecutable(nativeImage)) {
+                System.out.printf("SKIP  %-8s no native image at %s (build with -Pnative)%n", mode, nativeImage);
+                return null;
+            }
+            return new ArrayList<>(List.of(nativeImage.toAbsolutePath().toString()));
+        }
+        if (!List.of("jvm", "jvm-cds", "aot", "aot-cds").contains(mode)) {
+            throw new IllegalArgumentException("Unknown startup mode: " + mode);
+        }
+        explode();
+        boolean aot = mode.startsWith("aot");
+        if (aot && !aotProcessed) {
+            System.out.printf("SKIP  %-8s %s was not AOT-processed (build with -Paot)%n", mode, jar);
+            return null;
+        }
+        String classpath = exploded.resolve("application.jar") + File.pathSeparator
+                + exploded.resolve("lib") + File.separator + "*";
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xshare:auto", "-cp", classpath));
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add(mainClass);
+        return command;
+    }
+
+    /**
+     * Starts the command and returns the milliseconds until the first successful response and the RSS in KiB, or
+     * {@code null} if the service did not answer in time.
+     */
+    private long[] measure(List<String> command, CoinGeckoStubServer stub) throws Exception {
+        int port = freePort();
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.addAll(List.of(
+                "--server.port=" + port,
+                "--app.cryptoApi.baseUrl=" + stub.baseUrl(),
+                "--app.cryptoApi.catalog.source=builtin",
+                "--app.cryptoApi.snapshotFile.enabled=false",
+                "--app.accessLog.enabled=false",
+                "--logging.level.root=WARN"));
+        Path runDir = Files.createDirectories(workDir.resolve("run"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/currencies/BTC"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(fullCommand)
+                .directory(runDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(runDir.resolve("service.log").toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline && process.isAlive()) {
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return new long[]{millis, residentKib(process.pid())};
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            return null;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Unpacks the boot jar into {@code lib/} plus an {@code application.jar} of the application classes. Class data
+     * sharing only accepts jars on the class path, not directories.
+     */
+    private void explode() throws IOException {
+        if (exploded != null) {
+            return;
+        }
+        exploded = workDir.resolve("exploded");
+        if (Files.exists(exploded)) {
+            try (Stream<Path> stale = Files.walk(exploded)) {
+                for (Path path : stale.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+        Files.createDirectories(exploded.resolve("lib"));
+        try (JarFile jarFile = new JarFile(jar.toFile());
+             JarOutputStream application = new JarOutputStream(
+                     Files.newOutputStream(exploded.resolve("application.jar")))) {
+            mainClass = jarFile.getManifest().getMainAttributes().getValue("Start-Class");
+            String initializer = CLASSES + mainClass.replace('.', '/') + "__ApplicationContextInitializer.class";
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                aotProcessed |= name.equals(initializer);
+                if (name.startsWith(CLASSES) && name.length() > CLASSES.length()) {
+                    application.putNextEntry(new JarEntry(name.substring(CLASSES.length())));
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        in.transferTo(application);
+                    }
+                    application.closeEntry();
+                } else if (name.startsWith(LIB) && !entry.isDirectory()) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        Files.copy(in, exploded.resolve("lib").resolve(name.substring(LIB.length())),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long residentKib(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux, or the process is gone
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
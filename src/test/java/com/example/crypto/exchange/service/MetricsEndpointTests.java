@@ -0,0 +1,53 @@
+package com.example.crypto.exchange.service;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+	static CoinGeckoStubServer stub;
+
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@DynamicPropertySource
+	static void upstream(DynamicPropertyRegistry registry) throws IOException {
+		stub = CoinGeckoStubServer.start();
+		registry.add("app.cryptoApi.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.close();
+	}
+
+	@Test
+	void exposesEndpointUpstreamAndServiceMetricsInPrometheusFormat() {
+		restTemplate.getForObject("/currencies/BTC?filter[]=ETH", String.class);
+
+		String metrics = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+		assertTrue(metrics.contains("http_server_requests_seconds_bucket{"), metrics);
+		assertTrue(metrics.contains("uri=\"/currencies/{currency}\""), metrics);
+		assertTrue(metrics.contains("http_client_requests_seconds_bucket{"), metrics);
+		assertTrue(metrics.contains("status=\"200\""), metrics);
+		assertTrue(metrics.contains("rates_cache_requests_total{result=\"miss\""), metrics);
+		assertTrue(metrics.contains("rates_lookup_failed_total{from=\"BTC\",to=\"ETH\""), metrics);
+		assertTrue(metrics.contains("rates_upstream_circuit{state=\"closed\""), metrics);
+		assertTrue(metrics.contains("rates_snapshot_age_seconds"), metrics);
+	}
+
+}
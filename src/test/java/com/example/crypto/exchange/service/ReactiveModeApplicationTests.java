@@ -0,0 +1,23 @@
+package com.example.crypto.exchange.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.main.web-application-type=reactive")
+class ReactiveModeApplicationTests {
+
+	@Autowired
+	ReactiveWebServerApplicationContext context;
+
+	@Test
+	void runsOnNetty() {
+		assertInstanceOf(NettyWebServer.class, context.getWebServer());
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.example.crypto.exchange.service.catalog;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CatalogCoinTests {
+
+	static final int VS_CURRENCIES = 30;
+
+	static CoinGeckoStubServer stub;
+
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@Autowired
+	CurrencyCatalog catalog;
+
+	@DynamicPropertySource
+	static void fileCatalog(DynamicPropertyRegistry registry) throws IOException {
+		StringJoiner vsCurrencies = new StringJoiner(",", "[", "]");
+		vsCurrencies.add("\"eur\"");
+		for (int i = 1; i < VS_CURRENCIES; i++) {
+			vsCurrencies.add("\"x" + i + "\"");
+		}
+		Path file = Files.createTempDirectory("catalog").resolve("catalog.json");
+		Files.writeString(file, "{\"coins\":[{\"id\":\"solana\",\"symbol\":\"sol\"}],\"vsCurrencies\":" + vsCurrencies + "}");
+		stub = CoinGeckoStubServer.start();
+		registry.add("app.cryptoApi.baseUrl", stub::baseUrl);
+		registry.add("app.cryptoApi.poller.enabled", () -> "false");
+		registry.add("app.cryptoApi.catalog.source", () -> "file");
+		registry.add("app.cryptoApi.catalog.file", file::toString);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.close();
+	}
+
+	@BeforeEach
+	void loadCatalog() {
+		catalog.reload();
+	}
+
+	@Test
+	void servesRatesOfACatalogCoin() {
+		ResponseEntity<JsonNode> response = restTemplate.getForEntity("/currencies/SOL?filter[]=EUR", JsonNode.class);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("SOL", response.getBody().get("source").asText());
+		assertEquals(1.0, response.getBody().get("rates").get("EUR").asDouble());
+		assertEquals(CacheControl.noCache().getHeaderValue(), response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+		assertNotNull(response.getHeaders().getETag());
+	}
+
+	@Test
+	void splitsAnUnfilteredLookupIntoBoundedUpstreamCalls() {
+		int hits = stub.hits();
+
+		JsonNode response = restTemplate.getForObject("/currencies/solana", JsonNode.class);
+
+		assertEquals(VS_CURRENCIES + 4, response.get("rates").size());
+		assertEquals(hits + 2, stub.hits());
+	}
+
+	@Test
+	void exchangesACatalogCoin() {
+		JsonNode response = restTemplate.postForObject("/currencies/exchange",
+				Map.of("from", "sol", "to", List.of("EUR", "USD"), "amount", 100), JsonNode.class);
+
+		assertEquals("SOL", response.get("from").asText());
+		assertEquals(1.0, response.get("conversions").get("EUR").get("rate").asDouble());
+		assertEquals(1.0, response.get("conversions").get("USD").get("rate").asDouble());
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.example.crypto.exchange.service.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFileCatalogIsReloadedWhenChanged() throws Exception {
+        Path file = dir.resolve("catalog.json");
+        write(file, "{\"coins\":[{\"id\":\"solana\",\"symbol\":\"sol\",\"name\":\"Solana\"}],\"vsCurrencies\":[\"eur\"]}",
+                Instant.now().minusSeconds(60));
+        CurrencyCatalog catalog = new CurrencyCatalog(new CurrencyCatalog.FileLoader(file, new ObjectMapper()));
+
+        assertNull(catalog.current().coinId("sol"));
+        assertTrue(catalog.reload());
+        CurrencyIndex first = catalog.current();
+        assertEquals("solana", first.coinId("SOL"));
+        assertTrue(first.isVsCurrency("eur"));
+
+        assertFalse(catalog.reload());
+        assertSame(first, catalog.current());
+
+        write(file, "{\"coins\":[{\"id\":\"cardano\",\"symbol\":\"ada\"}],\"vsCurrencies\":[]}", Instant.now());
+        assertTrue(catalog.reload());
+        assertEquals("cardano", catalog.current().coinId("ada"));
+        assertNull(catalog.current().coinId("sol"));
+        assertEquals("solana", first.coinId("sol"));
+    }
+
+    @Test
+    void testFailedReloadKeepsCurrentCatalog() throws Exception {
+        Path file = dir.resolve("catalog.json");
+        write(file, "{\"coins\":[{\"id\":\"solana\",\"symbol\":\"sol\"}],\"vsCurrencies\":[]}",
+                Instant.now().minusSeconds(60));
+        CurrencyCatalog catalog = new CurrencyCatalog(new CurrencyCatalog.FileLoader(file, new ObjectMapper()));
+        catalog.reload();
+
+        write(file, "{\"coins\":[", Instant.now());
+
+        assertFalse(catalog.reload());
+        assertEquals("solana", catalog.current().coinId("sol"));
+    }
+
+    @Test
+    void testScheduledReloadRunsOffTheCallingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> loadingThread = new AtomicReference<>();
+        CurrencyCatalog catalog = new CurrencyCatalog(() -> {
+            loadingThread.set(Thread.currentThread());
+            release.await();
+            return CurrencyIndex.of(List.of(new CurrencyIndex.Coin("solana", "sol")), List.of());
+        });
+
+        catalog.scheduleReload();
+        catalog.scheduleReload();
+        assertNull(catalog.current().coinId("sol"));
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (catalog.current().coinId("sol") == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("solana", catalog.current().coinId("sol"));
+        assertNotSame(Thread.currentThread(), loadingThread.get());
+    }
+
+    private static void write(Path file, String json, Instant modified) throws Exception {
+        Files.writeString(file, json);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.crypto.exchange.service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyIndexTest {
+
+    @Test
+    void testLooksUpIdsAndSymbolsInAnyCase() {
+        CurrencyIndex index = CurrencyIndex.of(List.of(new CurrencyIndex.Coin("Solana", "SOL")), List.of("EUR"));
+
+        assertEquals("solana", index.coinId("solana"));
+        assertEquals("solana", index.coinId("SOLANA"));
+        assertEquals("solana", index.coinId("Sol"));
+        assertEquals("bitcoin", index.coinId("btc"));
+        assertNull(index.coinId("doge"));
+        assertNull(index.coinId(null));
+        assertTrue(index.isVsCurrency("eur"));
+        assertTrue(index.isVsCurrency("USD"));
+        assertFalse(index.isVsCurrency("sol"));
+    }
+
+    @Test
+    void testFirstCoinKeepsSharedSymbol() {
+        CurrencyIndex index = CurrencyIndex.of(List.of(
+                new CurrencyIndex.Coin("batcat", "btc"),
+                new CurrencyIndex.Coin("first-token", "tok"),
+                new CurrencyIndex.Coin("second-token", "tok"),
+                new CurrencyIndex.Coin("first-token", "dup")), List.of());
+
+        assertEquals("bitcoin", index.coinId("BTC"));
+        assertEquals("batcat", index.coinId("batcat"));
+        assertEquals("first-token", index.coinId("tok"));
+        assertNull(index.coinId("dup"));
+        assertEquals(7, index.coinCount());
+    }
+
+    @Test
+    void testCatalogIdsDoNotShadowSupportedSymbols() {
+        CurrencyIndex index = CurrencyIndex.of(List.of(
+                new CurrencyIndex.Coin("btc", "btcx"),
+                new CurrencyIndex.Coin("usdt", "usdtx")), List.of());
+
+        assertEquals("bitcoin", index.coinId("btc"));
+        assertEquals("tether", index.coinId("USDT"));
+        assertEquals("btc", index.coinId("btcx"));
+    }
+
+    @Test
+    void testScalesToLargeCatalogs() {
+        List<CurrencyIndex.Coin> coins = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            coins.add(new CurrencyIndex.Coin("coin-" + i, "c" + (i % 10_000)));
+        }
+        List<String> vsCurrencies = List.of("eur", "gbp", "jpy", "usd");
+
+        CurrencyIndex index = CurrencyIndex.of(coins, vsCurrencies);
+
+        assertEquals(50_004, index.coinCount());
+        assertEquals(7, index.vsCurrencyCount());
+        for (int i = 0; i < 50_000; i += 997) {
+            assertEquals("coin-" + i, index.coinId("COIN-" + i));
+        }
+        assertEquals("coin-9999", index.coinId("C9999"));
+    }
+}
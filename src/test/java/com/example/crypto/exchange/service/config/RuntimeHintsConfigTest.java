@@ -0,0 +1,35 @@
+package com.example.crypto.exchange.service.config;
+
+import com.example.crypto.exchange.service.model.ExchangeRequest;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuntimeHintsConfigTest {
+
+    @Test
+    void testRegistersHintsForNestedModelsCatalogAndValidation() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new RuntimeHintsConfig.Registrar().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ExchangeResponse.ExchangeResult.class.getMethod("getRate")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(HistoryResponse.Candle.class.getMethod("setOpen", BigDecimal.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.example.crypto.exchange.service.catalog.CurrencyCatalog$CatalogFile"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(ExchangeRequest.class.getDeclaredField("amount")).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forBundle("org.hibernate.validator.ValidationMessages").test(hints));
+    }
+}
@@ -1,24 +1,42 @@
 package com.example.crypto.exchange.service.controller;
 
+import com.example.crypto.exchange.service.exception.InvalidRequestException;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
 import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
 import com.example.crypto.exchange.service.model.ExchangeRequest;
 import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
 import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.RateHistory;
+import com.example.crypto.exchange.service.service.RateLookup;
+import com.example.crypto.exchange.service.service.RateMatrix;
+import com.example.crypto.exchange.service.service.RateResponseCache;
+import com.example.crypto.exchange.service.service.RateSnapshotHolder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
@@ -26,6 +44,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CryptoController.class)
+@Import({BatchValidator.class, RateResponseCache.class, RateSnapshotHolder.class, RateHistory.class})
 class CryptoControllerTest {
 
     @Autowired
@@ -39,8 +58,10 @@ class CryptoControllerTest {
 
     @BeforeEach
     void setup() {
-        when(cryptoRateService.getFilteredRates("BTC", null))
-                .thenReturn(new CurrencyRatesResponse("BTC", Map.of("USD", BigDecimal.valueOf(20000))));
+        when(cryptoRateService.lookupRates("BTC", null))
+                .thenReturn(new RateLookup(SupportedCurrency.BTC, new SupportedCurrency[0],
+                        RateMatrix.Row.of(Map.of("USD", BigDecimal.valueOf(20000))), "s7",
+                        Instant.now().plusSeconds(20)));
 
         when(cryptoRateService.exchangeCurrencies("BTC", List.of("ETH"), BigDecimal.valueOf(100)))
                 .thenReturn(new ExchangeResponse("BTC",
@@ -53,10 +74,118 @@ class CryptoControllerTest {
     void testGetRates() throws Exception {
         mockMvc.perform(get("/currencies/BTC"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.source").value("BTC"))
                 .andExpect(jsonPath("$.rates.USD").value(20000.0));
     }
 
+    @Test
+    void testGetRatesKeepsContentNegotiation() throws Exception {
+        mockMvc.perform(get("/currencies/BTC").accept(MediaType.TEXT_PLAIN))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void testGetRatesIsNotModifiedForCurrentETag() throws Exception {
+        String etag = mockMvc.perform(get("/currencies/BTC"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", matchesPattern("max-age=(19|20)")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/currencies/BTC").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetRatesOfCatalogCoinIsRevalidatedByETag() throws Exception {
+        when(cryptoRateService.getCatalogRates("SOL", List.of("EUR")))
+                .thenReturn(new CurrencyRatesResponse("SOL", Map.of("EUR", new BigDecimal("150.25"))));
+
+        String etag = mockMvc.perform(get("/currencies/SOL").param("filter[]", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$.source").value("SOL"))
+                .andExpect(jsonPath("$.rates.EUR").value(150.25))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/currencies/SOL").param("filter[]", "EUR").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testCorrelationIdIsEchoed() throws Exception {
+        mockMvc.perform(get("/currencies/BTC").header("X-Correlation-Id", "abc-123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Correlation-Id", "abc-123"));
+    }
+
+    @Test
+    void testCorrelationIdIsGeneratedWhenMissing() throws Exception {
+        mockMvc.perform(get("/currencies/BTC"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Correlation-Id"));
+    }
+
+    @Test
+    void testGetHistory() throws Exception {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        when(cryptoRateService.getHistory("BTC", "USD", "5m", from, null))
+                .thenReturn(new HistoryResponse("BTC", "USD", "5m", List.of(new HistoryResponse.Candle(from,
+                        BigDecimal.valueOf(100), BigDecimal.valueOf(120), BigDecimal.valueOf(90), BigDecimal.valueOf(110)))));
+
+        mockMvc.perform(get("/currencies/BTC/history")
+                        .param("target", "USD")
+                        .param("interval", "5m")
+                        .param("from", from.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interval").value("5m"))
+                .andExpect(jsonPath("$.candles[0].time").value("2024-01-01T00:00:00Z"))
+                .andExpect(jsonPath("$.candles[0].high").value(120));
+    }
+
+    @Test
+    void testGetHistoryRejectsUnknownInterval() throws Exception {
+        mockMvc.perform(get("/currencies/BTC/history")
+                        .param("target", "USD")
+                        .param("interval", "2m"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetHistoryRejectsRangeEndingBeforeItStarts() throws Exception {
+        Instant from = Instant.parse("2024-01-02T00:00:00Z");
+        Instant to = Instant.parse("2024-01-01T00:00:00Z");
+        when(cryptoRateService.getHistory("BTC", "USD", "1m", from, to))
+                .thenThrow(new InvalidRequestException("History range starts after it ends: " + from + " > " + to));
+
+        mockMvc.perform(get("/currencies/BTC/history")
+                        .param("target", "USD")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("History range starts after it ends: " + from + " > " + to));
+    }
+
+    @Test
+    void testStreamRates() throws Exception {
+        when(cryptoRateService.streamRates("BTC", List.of("USD")))
+                .thenReturn(Flux.just(new CurrencyRatesResponse("BTC", Map.of("USD", BigDecimal.valueOf(20000)))));
+
+        MvcResult result = mockMvc.perform(get("/currencies/BTC/stream")
+                        .param("filter[]", "USD")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:rates")))
+                .andExpect(content().string(containsString("\"USD\":20000")));
+    }
+
     @Test
     void testExchange() throws Exception {
         ExchangeRequest request = new ExchangeRequest();
@@ -71,4 +200,39 @@ class CryptoControllerTest {
                 .andExpect(jsonPath("$.from").value("BTC"))
                 .andExpect(jsonPath("$.conversions.ETH.rate").value(10.0));
     }
+
+    @Test
+    void testExchangeBatchRejectsInvalidItemsIndividually() throws Exception {
+        ExchangeRequest valid = new ExchangeRequest();
+        valid.setFrom("BTC");
+        valid.setTo(List.of("ETH"));
+        valid.setAmount(BigDecimal.valueOf(100));
+        ExchangeRequest invalid = new ExchangeRequest();
+        invalid.setFrom("");
+        invalid.setTo(List.of("ETH"));
+        invalid.setAmount(BigDecimal.valueOf(100));
+
+        when(cryptoRateService.exchangeBatch(eq(List.of(valid, invalid)), any()))
+                .thenAnswer(invocation -> {
+                    Map<Integer, Map<String, String>> rejected = invocation.getArgument(1);
+                    return new BatchExchangeResponse(List.of(
+                            new BatchExchangeResponse.Item(0, new ExchangeResponse("BTC", Map.of()), null),
+                            new BatchExchangeResponse.Item(1, null, rejected.get(1))));
+                });
+
+        mockMvc.perform(post("/currencies/exchange/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, invalid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].response.from").value("BTC"))
+                .andExpect(jsonPath("$.results[1].errors.from").value("Source currency 'from' cannot be empty"));
+    }
+
+    @Test
+    void testExchangeBatchRejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/currencies/exchange/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.crypto.exchange.service.controller;
+
+import com.example.crypto.exchange.service.exception.ResourceNotFoundException;
+import com.example.crypto.exchange.service.model.ExchangeRequest;
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.example.crypto.exchange.service.service.CryptoRateService;
+import com.example.crypto.exchange.service.service.RateHistory;
+import com.example.crypto.exchange.service.service.RateLookup;
+import com.example.crypto.exchange.service.service.RateMatrix;
+import com.example.crypto.exchange.service.service.RateResponseCache;
+import com.example.crypto.exchange.service.service.RateSnapshotHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveCryptoController.class)
+@Import({BatchValidator.class, RateResponseCache.class, RateSnapshotHolder.class, RateHistory.class})
+class ReactiveCryptoControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    CryptoRateService cryptoRateService;
+
+    @BeforeEach
+    void setup() {
+        when(cryptoRateService.lookupRatesAsync("BTC", null))
+                .thenReturn(Mono.just(new RateLookup(SupportedCurrency.BTC, new SupportedCurrency[0],
+                        RateMatrix.Row.of(Map.of("USD", BigDecimal.valueOf(20000))), "s7",
+                        Instant.now().plusSeconds(20))));
+
+        when(cryptoRateService.getCatalogRatesAsync("DOGE", null))
+                .thenReturn(Mono.error(new ResourceNotFoundException("Currency data not found for: doge")));
+
+        when(cryptoRateService.exchangeCurrenciesAsync("BTC", List.of("ETH"), BigDecimal.valueOf(100)))
+                .thenReturn(Mono.just(new ExchangeResponse("BTC",
+                        Map.of("ETH", new ExchangeResponse.ExchangeResult(
+                                BigDecimal.TEN, BigDecimal.valueOf(100), BigDecimal.valueOf(950), BigDecimal.valueOf(1))
+                        ))));
+    }
+
+    @Test
+    void testGetRates() {
+        webTestClient.get().uri("/currencies/BTC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.source").isEqualTo("BTC")
+                .jsonPath("$.rates.USD").isEqualTo(20000);
+    }
+
+    @Test
+    void testGetRatesIsNotModifiedForCurrentETag() {
+        String etag = webTestClient.get().uri("/currencies/BTC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("Cache-Control", "max-age=(19|20)")
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/currencies/BTC")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testGetRatesNotFound() {
+        webTestClient.get().uri("/currencies/DOGE")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Currency data not found for: doge")
+                .jsonPath("$.path").isEqualTo("uri=/currencies/DOGE")
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    void testExchange() {
+        ExchangeRequest request = new ExchangeRequest();
+        request.setFrom("BTC");
+        request.setTo(List.of("ETH"));
+        request.setAmount(BigDecimal.valueOf(100));
+
+        webTestClient.post().uri("/currencies/exchange")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.from").isEqualTo("BTC")
+                .jsonPath("$.conversions.ETH.rate").isEqualTo(10);
+    }
+
+    @Test
+    void testExchangeValidationError() {
+        ExchangeRequest request = new ExchangeRequest();
+        request.setFrom("BTC");
+        request.setTo(List.of("ETH"));
+        request.setAmount(BigDecimal.ZERO);
+
+        webTestClient.post().uri("/currencies/exchange")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo("Amount must be at least 1");
+    }
+}
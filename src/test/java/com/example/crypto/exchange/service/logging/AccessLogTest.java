@@ -0,0 +1,58 @@
+package com.example.crypto.exchange.service.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private final AccessLog accessLog = new AccessLog(true, 0.1, Duration.ofMillis(500));
+
+    @Test
+    void testOrdinaryRequestsAreSampled() {
+        assertTrue(accessLog.shouldLog(200, FAST, 0.05));
+        assertFalse(accessLog.shouldLog(200, FAST, 0.5));
+    }
+
+    @Test
+    void testServerErrorsAndSlowRequestsAreAlwaysLogged() {
+        assertTrue(accessLog.shouldLog(503, FAST, 0.99));
+        assertTrue(accessLog.shouldLog(200, SLOW, 0.99));
+        assertFalse(accessLog.shouldLog(404, FAST, 0.99));
+    }
+
+    @Test
+    void testDisabledAccessLogWritesNothing() {
+        AccessLog disabled = new AccessLog(false, 1.0, Duration.ZERO);
+
+        assertFalse(disabled.shouldLog(500, SLOW, 0.0));
+    }
+
+    @Test
+    void testCorrelationIdIsReusedOrGenerated() {
+        assertEquals("abc-123", AccessLog.correlationId("abc-123"));
+        assertFalse(AccessLog.correlationId(null).isBlank());
+        assertNotEquals("x".repeat(65), AccessLog.correlationId("x".repeat(65)));
+    }
+
+    @Test
+    void testForgedCorrelationIdsAreReplaced() {
+        assertEquals("Req_1.a-B", AccessLog.correlationId("Req_1.a-B"));
+        assertNotEquals("abc status=500", AccessLog.correlationId("abc status=500"));
+        assertNotEquals("abc\nforged", AccessLog.correlationId("abc\nforged"));
+        assertNotEquals("", AccessLog.correlationId(""));
+        assertTrue(AccessLog.correlationId("é").matches("[0-9a-f]+"));
+    }
+
+    @Test
+    void testDurationIsRenderedInMillisecondsWithMicrosecondPrecision() {
+        assertEquals("12.345", new AccessLog.Millis(12_345_678).toString());
+        assertEquals("0.007", new AccessLog.Millis(7_999).toString());
+        assertEquals("1500.050", new AccessLog.Millis(1_500_050_000).toString());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.crypto.exchange.service.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveCorrelationIdFilterTest {
+
+    private final ReactiveCorrelationIdFilter filter = new ReactiveCorrelationIdFilter(false, 0, Duration.ofSeconds(1));
+
+    @Test
+    void testCorrelationIdIsInTheMdcOfLogCallsOnHandlerThreads() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/currencies/BTC")
+                .header(AccessLog.CORRELATION_ID_HEADER, "abc-123"));
+        AtomicReference<String> callerThread = new AtomicReference<>(Thread.currentThread().getName());
+        AtomicReference<String> handlerThread = new AtomicReference<>();
+        AtomicReference<String> logged = new AtomicReference<>();
+        AtomicReference<String> outsideLogCall = new AtomicReference<>("unset");
+
+        filter.filter(exchange, ex -> Mono.delay(Duration.ofMillis(1))
+                .doOnNext(tick -> handlerThread.set(Thread.currentThread().getName()))
+                .then(CorrelationContext.log(() -> logged.set(MDC.get(AccessLog.CORRELATION_ID_MDC_KEY))))
+                .doOnTerminate(() -> outsideLogCall.set(MDC.get(AccessLog.CORRELATION_ID_MDC_KEY))))
+                .block(Duration.ofSeconds(5));
+
+        assertNotEquals(callerThread.get(), handlerThread.get());
+        assertEquals("abc-123", logged.get());
+        assertNull(outsideLogCall.get());
+        assertEquals("abc-123", exchange.getResponse().getHeaders().getFirst(AccessLog.CORRELATION_ID_HEADER));
+    }
+}
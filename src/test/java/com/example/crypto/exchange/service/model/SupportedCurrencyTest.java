@@ -0,0 +1,27 @@
+package com.example.crypto.exchange.service.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SupportedCurrencyTest {
+
+    @Test
+    void testLookupIgnoresCaseAndDoesNotThrow() {
+        assertEquals(SupportedCurrency.USDT, SupportedCurrency.lookup("usdt"));
+        assertEquals(SupportedCurrency.BTC, SupportedCurrency.lookup("Btc"));
+        assertNull(SupportedCurrency.lookup("DOGE"));
+        assertNull(SupportedCurrency.lookup(null));
+    }
+
+    @Test
+    void testFromSymbolStillThrowsForUnknownSymbols() {
+        assertThrows(IllegalArgumentException.class, () -> SupportedCurrency.fromSymbol("DOGE"));
+    }
+
+    @Test
+    void testFromCoinId() {
+        assertEquals(SupportedCurrency.ETH, SupportedCurrency.fromCoinId("ethereum"));
+        assertNull(SupportedCurrency.fromCoinId("ETH"));
+    }
+}
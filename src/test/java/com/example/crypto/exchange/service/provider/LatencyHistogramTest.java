@@ -0,0 +1,53 @@
+package com.example.crypto.exchange.service.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testNoEstimateBeforeMinimumSamples() {
+        LatencyHistogram histogram = new LatencyHistogram(256, 16);
+        for (int i = 0; i < 15; i++) {
+            histogram.record(millis(10));
+        }
+
+        assertEquals(-1, histogram.percentileNanos(0.95));
+        histogram.record(millis(10));
+        assertTrue(histogram.percentileNanos(0.95) > 0);
+    }
+
+    @Test
+    void testPercentileIsAtMostAQuarterAboveTheTrueLatency() {
+        LatencyHistogram histogram = new LatencyHistogram(1024, 16);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(millis(i));
+        }
+
+        long p95 = histogram.percentileNanos(0.95);
+        assertTrue(p95 >= millis(95), Duration.ofNanos(p95).toString());
+        assertTrue(p95 <= millis(95) * 5 / 4, Duration.ofNanos(p95).toString());
+        long p50 = histogram.percentileNanos(0.5);
+        assertTrue(p50 >= millis(50) && p50 <= millis(50) * 5 / 4, Duration.ofNanos(p50).toString());
+    }
+
+    @Test
+    void testOlderLatenciesFadeOut() {
+        LatencyHistogram histogram = new LatencyHistogram(64, 16);
+        for (int i = 0; i < 64; i++) {
+            histogram.record(millis(10));
+        }
+        for (int i = 0; i < 256; i++) {
+            histogram.record(millis(500));
+        }
+
+        assertTrue(histogram.percentileNanos(0.5) >= millis(500));
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+}
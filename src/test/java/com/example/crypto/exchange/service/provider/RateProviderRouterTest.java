@@ -0,0 +1,95 @@
+package com.example.crypto.exchange.service.provider;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateProviderRouterTest {
+
+    private static final String[] IDS = {"bitcoin"};
+    private static final String[] VS = {"usd"};
+
+    private CoinGeckoStubServer primary;
+    private CoinGeckoStubServer secondary;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = CoinGeckoStubServer.start().respondWith("{\"bitcoin\":{\"usd\":1.0}}");
+        secondary = CoinGeckoStubServer.start().respondWith("{\"bitcoin\":{\"usd\":2.0}}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        secondary.close();
+    }
+
+    @Test
+    void testFastPrimaryIsNotHedged() {
+        RateProviderRouter router = router(Duration.ofSeconds(5));
+
+        assertEquals(BigDecimal.valueOf(1.0), usd(router.fetchRates(IDS, VS).block()));
+        assertEquals(0, secondary.hits());
+        assertEquals(0, router.getHedgedCount());
+    }
+
+    @Test
+    void testSlowPrimaryIsHedgedToSecondary() {
+        RateProviderRouter router = router(Duration.ofMillis(200));
+        primary.withLatency(Duration.ofSeconds(3));
+
+        long start = System.nanoTime();
+        Map<String, Map<String, BigDecimal>> rates = router.fetchRates(IDS, VS).block();
+
+        assertEquals(BigDecimal.valueOf(2.0), usd(rates));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        assertEquals(1, router.getHedgedCount());
+    }
+
+    @Test
+    void testFailingPrimaryIsHedgedImmediatelyAndLeftOutOfRotation() {
+        RateProviderRouter router = router(Duration.ofSeconds(5));
+        primary.respondWithStatus(503);
+
+        assertEquals(BigDecimal.valueOf(2.0), usd(router.fetchRates(IDS, VS).block()));
+        assertEquals(BigDecimal.valueOf(2.0), usd(router.fetchRates(IDS, VS).block()));
+        assertFalse(router.isHealthy("primary"));
+
+        assertEquals(BigDecimal.valueOf(2.0), usd(router.fetchRates(IDS, VS).block()));
+        assertEquals(2, primary.hits());
+    }
+
+    @Test
+    void testPrimaryErrorIsReportedWhenAllProvidersFail() {
+        RateProviderRouter router = router(Duration.ofSeconds(5));
+        primary.respondWithStatus(503);
+        secondary.respondWithStatus(500);
+
+        WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                () -> router.fetchRates(IDS, VS).block());
+        assertEquals(503, error.getStatusCode().value());
+    }
+
+    private RateProviderRouter router(Duration maxHedgeDelay) {
+        return new RateProviderRouter(List.of(provider("primary", primary), provider("secondary", secondary)),
+                true, 0.95, Duration.ofMillis(20), maxHedgeDelay, 2, Duration.ofMinutes(1));
+    }
+
+    private static RateProvider provider(String name, CoinGeckoStubServer stub) {
+        return new CoinGeckoRateProvider(name, WebClient.builder().baseUrl(stub.baseUrl()).build());
+    }
+
+    private static BigDecimal usd(Map<String, Map<String, BigDecimal>> rates) {
+        return rates.get("bitcoin").get("USD");
+    }
+}
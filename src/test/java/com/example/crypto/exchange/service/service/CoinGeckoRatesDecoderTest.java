@@ -0,0 +1,67 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinGeckoRatesDecoderTest {
+
+    private static final String[] SOURCES = {"bitcoin", "ethereum"};
+    private static final String[] TARGETS = {"usd", "eth"};
+
+    @Test
+    void testKeepsExactDecimalText() {
+        Map<String, Map<String, BigDecimal>> rates = decode(
+                "{\"bitcoin\":{\"usd\":67187.33000000001,\"eth\":19.1},\"ethereum\":{\"usd\":3500}}");
+
+        assertEquals(new BigDecimal("67187.33000000001"), rates.get("bitcoin").get("USD"));
+        assertEquals(new BigDecimal("19.1"), rates.get("bitcoin").get("eth"));
+        assertEquals(Map.of("USD", new BigDecimal("3500")), rates.get("ethereum"));
+    }
+
+    @Test
+    void testDecodesBodySplitAcrossBuffers() {
+        byte[] json = "{\"bitcoin\":{\"usd\":20000.5,\"eth\":10.25}}".getBytes(StandardCharsets.UTF_8);
+        Flux<DataBuffer> body = Flux.range(0, json.length)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{json[i]}));
+
+        Map<String, Map<String, BigDecimal>> rates = CoinGeckoRatesDecoder.decode(body, SOURCES, TARGETS).block();
+
+        assertEquals(Map.of("USD", new BigDecimal("20000.5"), "ETH", new BigDecimal("10.25")), rates.get("bitcoin"));
+    }
+
+    @Test
+    void testKeepsCurrenciesThatWereNotRequested() {
+        Map<String, BigDecimal> rates = decode("{\"bitcoin\":{\"usd\":1,\"eur\":0.9}}").get("bitcoin");
+
+        assertEquals(2, rates.size());
+        assertEquals(new BigDecimal("0.9"), rates.get("EUR"));
+    }
+
+    @Test
+    void testEmptyBodyDecodesToNoRates() {
+        assertTrue(CoinGeckoRatesDecoder.decode(Flux.empty(), SOURCES, TARGETS).block().isEmpty());
+        assertTrue(decode("{}").isEmpty());
+    }
+
+    @Test
+    void testRejectsNonNumericAndMalformedBodies() {
+        assertThrows(ResourceNotFoundException.class, () -> decode("{\"bitcoin\":{\"usd\":\"n/a\"}}"));
+        assertThrows(ResourceNotFoundException.class, () -> decode("{\"bitcoin\":{\"usd\":null}}"));
+        assertThrows(DecodingException.class, () -> decode("[1, 2]"));
+        assertThrows(DecodingException.class, () -> decode("{\"bitcoin\":{\"usd\":1"));
+    }
+
+    private static Map<String, Map<String, BigDecimal>> decode(String json) {
+        return CoinGeckoRatesDecoder.decode(json.getBytes(StandardCharsets.UTF_8), SOURCES, TARGETS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.ExchangeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionEngineTest {
+
+    private final ConversionEngine engine = new ConversionEngine(8, RoundingMode.HALF_EVEN);
+
+    @Test
+    void testFeeIsComputedOnceAndRoundedToScale() {
+        ConversionEngine.Quote quote = engine.quote(new BigDecimal("100"), new BigDecimal("0.01"));
+
+        assertEquals(new BigDecimal("1.00000000"), quote.fee());
+        assertEquals(new BigDecimal("99.00000000"), quote.amountAfterFee());
+    }
+
+    @Test
+    void testConvertMatchesBigDecimalArithmetic() {
+        ConversionEngine.Quote quote = engine.quote(new BigDecimal("123.456789"), new BigDecimal("0.01"));
+        BigDecimal[] rates = {
+                new BigDecimal("20000.0"),
+                new BigDecimal("0.0000166666666666667"),
+                new BigDecimal("1.00020004"),
+                new BigDecimal("12345678901.123456789")
+        };
+
+        for (BigDecimal rate : rates) {
+            ExchangeResponse.ExchangeResult result = engine.convert(quote, rate);
+            BigDecimal expected = quote.amountAfterFee().multiply(rate).setScale(8, RoundingMode.HALF_EVEN);
+            assertEquals(expected, result.getResult(), "rate " + rate);
+            assertEquals(rate, result.getRate());
+            assertEquals(quote.fee(), result.getFee());
+        }
+    }
+
+    @Test
+    void testRoundingModesMatchBigDecimal() {
+        BigDecimal rate = new BigDecimal("0.125");
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            ConversionEngine twoDigits = new ConversionEngine(2, mode);
+            ConversionEngine.Quote quote = twoDigits.quote(new BigDecimal("1.02"), BigDecimal.ZERO);
+            BigDecimal expected = new BigDecimal("1.02").multiply(rate).setScale(2, mode);
+            assertEquals(expected, twoDigits.convert(quote, rate).getResult(), mode.name());
+        }
+    }
+
+    @Test
+    void testRejectsUnsupportedScale() {
+        assertThrows(IllegalArgumentException.class, () -> new ConversionEngine(19, RoundingMode.HALF_EVEN));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossRateEngineTest {
+
+    private final CrossRateEngine engine = new CrossRateEngine(true, "USD", 6, RoundingMode.HALF_EVEN);
+
+    private final Map<String, BigDecimal> quotes = Map.of(
+            "bitcoin", new BigDecimal("30000"),
+            "ethereum", new BigDecimal("1800"),
+            "tether", new BigDecimal("0.9998"));
+
+    @Test
+    void testQuotedCoinIdsExcludePivot() {
+        assertArrayEquals(new String[]{"bitcoin", "ethereum", "tether"}, engine.quotedCoinIds());
+    }
+
+    @Test
+    void testDeriveMatrixTriangulatesThroughPivot() {
+        Map<String, Map<String, BigDecimal>> matrix = engine.deriveMatrix(quotes);
+
+        assertEquals(4, matrix.size());
+        assertEquals(new BigDecimal("16.6667"), matrix.get("bitcoin").get("ETH"));
+        assertEquals(new BigDecimal("30000"), matrix.get("bitcoin").get("USD"));
+        assertEquals(new BigDecimal("0.0000333333"), matrix.get("usd").get("BTC"));
+        assertEquals(new BigDecimal("1.00020"), matrix.get("usd").get("USDT"));
+        assertEquals(BigDecimal.ONE, matrix.get("ethereum").get("ETH"));
+    }
+
+    @Test
+    void testMissingQuoteLeavesCurrencyOut() {
+        assertNull(engine.deriveRates(SupportedCurrency.ETH, Map.of("bitcoin", BigDecimal.TEN)));
+
+        Map<String, BigDecimal> btc = engine.deriveRates(SupportedCurrency.BTC, Map.of("bitcoin", BigDecimal.TEN));
+        assertEquals(Map.of("BTC", BigDecimal.ONE, "USD", BigDecimal.TEN), btc);
+    }
+
+    @Test
+    void testPivotQuotesFlattenResponse() {
+        Map<String, BigDecimal> flattened = engine.pivotQuotes(Map.of(
+                "bitcoin", Map.of("USD", BigDecimal.TEN),
+                "ethereum", Map.of("EUR", BigDecimal.ONE)));
+
+        assertEquals(Map.of("bitcoin", BigDecimal.TEN), flattened);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.catalog.CurrencyCatalog;
+import com.example.crypto.exchange.service.provider.CoinGeckoRateProvider;
+import com.example.crypto.exchange.service.provider.RateProviderRouter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * Builds a {@link CryptoRateService} for tests and benchmarks from a WebClient plus the collaborators a test wants
+ * to hold on to; every other collaborator gets the defaults of {@code application.yaml}, with a rate limit high
+ * enough never to delay a call, even in a benchmark loop.
+ */
+public final class CryptoRateServiceFixture {
+
+    private final WebClient webClient;
+    private RateCache rateCache = new RateCache(Duration.ofSeconds(30), Duration.ofSeconds(60), 16);
+    private RateHistory rateHistory = new RateHistory(60, 12, 24);
+    private RateSnapshotHolder snapshotHolder = new RateSnapshotHolder(Duration.ofSeconds(30), rateHistory);
+    private SingleFlight singleFlight = new SingleFlight();
+    private boolean crossRates;
+    private UpstreamCircuitBreaker circuitBreaker = new UpstreamCircuitBreaker(5, Duration.ofSeconds(30));
+    private UpstreamScheduler scheduler =
+            new UpstreamScheduler(10_000_000, 10_000, 100, Duration.ofSeconds(5), Duration.ofSeconds(1));
+    private CurrencyCatalog catalog = CurrencyCatalog.builtin();
+    private BigDecimal feePercentage = new BigDecimal("0.01");
+
+    private CryptoRateServiceFixture(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public static CryptoRateServiceFixture upstream(WebClient webClient) {
+        return new CryptoRateServiceFixture(webClient);
+    }
+
+    public CryptoRateServiceFixture rateCache(RateCache rateCache) {
+        this.rateCache = rateCache;
+        return this;
+    }
+
+    public CryptoRateServiceFixture snapshotHolder(RateSnapshotHolder snapshotHolder) {
+        this.snapshotHolder = snapshotHolder;
+        return this;
+    }
+
+    public CryptoRateServiceFixture rateHistory(RateHistory rateHistory) {
+        this.rateHistory = rateHistory;
+        return this;
+    }
+
+    public CryptoRateServiceFixture singleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    public CryptoRateServiceFixture crossRates(boolean crossRates) {
+        this.crossRates = crossRates;
+        return this;
+    }
+
+    public CryptoRateServiceFixture circuitBreaker(UpstreamCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    public CryptoRateServiceFixture scheduler(UpstreamScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    public CryptoRateServiceFixture catalog(CurrencyCatalog catalog) {
+        this.catalog = catalog;
+        return this;
+    }
+
+    public CryptoRateServiceFixture feePercentage(BigDecimal feePercentage) {
+        this.feePercentage = feePercentage;
+        return this;
+    }
+
+    public CryptoRateService build() {
+        CryptoRateService service = new CryptoRateService(
+                RateProviderRouter.of(new CoinGeckoRateProvider("coingecko", webClient)),
+                rateCache,
+                snapshotHolder,
+                singleFlight,
+                new CrossRateEngine(crossRates, "usd", 18, RoundingMode.HALF_EVEN),
+                new ConversionEngine(8, RoundingMode.HALF_EVEN),
+                circuitBreaker,
+                rateHistory,
+                scheduler,
+                catalog);
+        ReflectionTestUtils.setField(service, "feePercentage", feePercentage);
+        return service;
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.crypto.exchange.service.service;
 
 import com.example.crypto.exchange.service.exception.ResourceNotFoundException;
+import com.example.crypto.exchange.service.exception.UpstreamUnavailableException;
+import com.example.crypto.exchange.service.model.BatchExchangeResponse;
+import com.example.crypto.exchange.service.model.CurrencyRatesResponse;
+import com.example.crypto.exchange.service.model.ExchangeRequest;
 import com.example.crypto.exchange.service.model.ExchangeResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriBuilder;
-import reactor.core.publisher.Mono;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +40,7 @@ class CryptoRateServiceTest {
     private WebClient.RequestHeadersUriSpec uriSpec;
     private WebClient.RequestHeadersSpec headersSpec;
     private WebClient.ResponseSpec responseSpec;
+    private RateSnapshotHolder snapshotHolder;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -40,8 +54,11 @@ class CryptoRateServiceTest {
         when(uriSpec.uri((Function<UriBuilder, URI>)any())).thenReturn(headersSpec);
         when(headersSpec.retrieve()).thenReturn(responseSpec);
 
-        cryptoRateService = new CryptoRateService(mockWebClient);
-        ReflectionTestUtils.setField(cryptoRateService, "feePercentage", BigDecimal.valueOf(0.01));
+        snapshotHolder = new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24));
+
+        cryptoRateService = CryptoRateServiceFixture.upstream(mockWebClient)
+                .snapshotHolder(snapshotHolder)
+                .build();
     }
 
     @Test
@@ -50,17 +67,26 @@ class CryptoRateServiceTest {
                 "bitcoin", Map.of("usd", 20000.0, "eth", 10.0)
         );
 
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockResponse));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
 
         Map<String, BigDecimal> rates = cryptoRateService.getRates("bitcoin", new String[]{"usd", "eth"});
         assertEquals(BigDecimal.valueOf(20000.0), rates.get("USD"));
         assertEquals(BigDecimal.valueOf(10.0), rates.get("ETH"));
     }
 
+    @Test
+    void testGetRatesNormalizesAndValidatesVsCurrencies() {
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(Map.of("bitcoin", Map.of("usd", 20000.0))));
+
+        assertEquals(BigDecimal.valueOf(20000.0), cryptoRateService.getRates("BTC", new String[]{"USD"}).get("USD"));
+        assertThrows(IllegalArgumentException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"xyz"}));
+        Mockito.verify(mockWebClient, Mockito.times(1)).get();
+    }
+
     @Test
     void testGetRatesNoData() {
         Map<String, Object> mockResponse = Map.of();
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockResponse));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
 
         assertThrows(ResourceNotFoundException.class, () ->
                 cryptoRateService.getRates("bitcoin", new String[]{"usd"})
@@ -72,7 +98,7 @@ class CryptoRateServiceTest {
         Map<String, Object> mockResponse = Map.of(
                 "bitcoin", Map.of("usd", "non-numeric")
         );
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockResponse));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
 
         assertThrows(ResourceNotFoundException.class, () ->
                 cryptoRateService.getRates("bitcoin", new String[]{"usd"})
@@ -84,10 +110,267 @@ class CryptoRateServiceTest {
         Map<String, Object> mockResponse = Map.of(
                 "bitcoin", Map.of("eth", 10.0) // USDT missing
         );
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockResponse));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
 
         ExchangeResponse response = cryptoRateService.exchangeCurrencies("BTC", List.of("ETH","USDT"), BigDecimal.valueOf(100));
         assertTrue(response.getConversions().containsKey("ETH"));
         assertFalse(response.getConversions().containsKey("USDT"));
     }
+
+    @Test
+    void testExchangeCurrenciesServedFromFreshSnapshot() {
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("ETH", BigDecimal.TEN)), Instant.now());
+
+        ExchangeResponse response = cryptoRateService.exchangeCurrencies("BTC", List.of("ETH"), BigDecimal.valueOf(100));
+        assertEquals(BigDecimal.TEN, response.getConversions().get("ETH").getRate());
+        Mockito.verifyNoInteractions(mockWebClient);
+    }
+
+    @Test
+    void testStaleSnapshotFallsBackToUpstream() {
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now().minusSeconds(60));
+        Map<String, Object> mockResponse = Map.of("bitcoin", Map.of("usd", 20000.0));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
+
+        CurrencyRatesResponse response = cryptoRateService.getFilteredRates("BTC", List.of("USD"));
+        assertEquals(BigDecimal.valueOf(20000.0), response.getRates().get("USD"));
+    }
+
+    @Test
+    void testRestoredSnapshotIsNotServedAsFresh() {
+        snapshotHolder.restore(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now().minusSeconds(600), false);
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(Map.of("bitcoin", Map.of("usd", 20000.0))));
+
+        CurrencyRatesResponse response = cryptoRateService.getFilteredRates("BTC", List.of("USD"));
+
+        assertEquals(BigDecimal.valueOf(20000.0), response.getRates().get("USD"));
+        Mockito.verify(mockWebClient, Mockito.times(1)).get();
+    }
+
+    @Test
+    void testWarmStartSnapshotIsServedUncacheableUntilTheFirstLiveSnapshot() {
+        snapshotHolder.restore(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now().minusSeconds(600), true);
+
+        VersionedRates restored = cryptoRateService.getVersionedRates("BTC", List.of("USD"));
+        assertEquals(BigDecimal.ONE, restored.toResponse().getRates().get("USD"));
+        assertNull(restored.freshUntil());
+        Mockito.verifyNoInteractions(mockWebClient);
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.TEN)), Instant.now());
+        VersionedRates live = cryptoRateService.getVersionedRates("BTC", List.of("USD"));
+        assertEquals(BigDecimal.TEN, live.toResponse().getRates().get("USD"));
+        assertNotNull(live.freshUntil());
+    }
+
+    @Test
+    void testEquivalentFiltersShareETag() {
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE, "ETH", BigDecimal.TEN)), Instant.now());
+
+        VersionedRates ordered = cryptoRateService.getVersionedRates("BTC", List.of("ETH", "USD"));
+        VersionedRates shuffled = cryptoRateService.getVersionedRates("BTC", List.of("usd", "ETH", "USD"));
+        VersionedRates narrower = cryptoRateService.getVersionedRates("BTC", List.of("USD"));
+
+        assertEquals(ordered.etag(), shuffled.etag());
+        assertNotEquals(ordered.etag(), narrower.etag());
+        assertNotNull(ordered.freshUntil());
+    }
+
+    @Test
+    void testLookupGenerationFollowsTheCacheEntry() {
+        when(responseSpec.bodyToFlux(DataBuffer.class))
+                .thenReturn(body(Map.of("bitcoin", Map.of("usd", 20000.0))))
+                .thenReturn(body(Map.of("bitcoin", Map.of("usd", 21000.0))));
+
+        RateLookup first = cryptoRateService.lookupRates("BTC", List.of("USD"));
+        RateLookup hit = cryptoRateService.lookupRates("BTC", List.of("USD"));
+        assertNotNull(first.generation());
+        assertEquals(first.generation(), hit.generation());
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now());
+        RateLookup snapshot = cryptoRateService.lookupRates("BTC", List.of("USD"));
+        assertNotEquals(first.generation(), snapshot.generation());
+        Mockito.verify(mockWebClient, Mockito.times(1)).get();
+    }
+
+    @Test
+    void testETagDependsOnRatesRatherThanSnapshotVersion() {
+        Map<String, Map<String, BigDecimal>> rates = Map.of("bitcoin", Map.of("USD", BigDecimal.ONE));
+        snapshotHolder.publish(rates, Instant.now());
+        String first = cryptoRateService.getVersionedRates("BTC", null).etag();
+
+        snapshotHolder.publish(rates, Instant.now());
+        assertEquals(first, cryptoRateService.getVersionedRates("BTC", null).etag());
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.TEN)), Instant.now());
+        assertNotEquals(first, cryptoRateService.getVersionedRates("BTC", null).etag());
+    }
+
+    @Test
+    void testCrossRatesServeEverySourceFromOneUpstreamCall() {
+        CryptoRateService crossRateService = CryptoRateServiceFixture.upstream(mockWebClient)
+                .snapshotHolder(snapshotHolder)
+                .crossRates(true)
+                .build();
+        Map<String, Object> mockResponse = Map.of(
+                "bitcoin", Map.of("usd", 20000.0),
+                "ethereum", Map.of("usd", 2000.0),
+                "tether", Map.of("usd", 1.0));
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
+
+        CurrencyRatesResponse btc = crossRateService.getFilteredRates("BTC", List.of("ETH"));
+        CurrencyRatesResponse usd = crossRateService.getFilteredRates("USD", null);
+
+        assertEquals(0, BigDecimal.TEN.compareTo(btc.getRates().get("ETH")));
+        assertEquals(0, new BigDecimal("0.0005").compareTo(usd.getRates().get("ETH")));
+        Mockito.verify(mockWebClient, Mockito.times(1)).get();
+    }
+
+    @Test
+    void testHistoryRecordsUpstreamFetchesAndPublishedSnapshotsOnly() {
+        RateHistory history = Mockito.spy(new RateHistory(60, 12, 24));
+        RateSnapshotHolder holder = new RateSnapshotHolder(Duration.ofSeconds(30), history);
+        CryptoRateService crossRateService = CryptoRateServiceFixture.upstream(mockWebClient)
+                .snapshotHolder(holder)
+                .rateHistory(history)
+                .crossRates(true)
+                .build();
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(Map.of(
+                "bitcoin", Map.of("usd", 20000.0),
+                "ethereum", Map.of("usd", 2000.0),
+                "tether", Map.of("usd", 1.0))));
+
+        crossRateService.getFilteredRates("BTC", List.of("ETH"));
+        crossRateService.getFilteredRates("BTC", List.of("ETH"));
+        crossRateService.getFilteredRates("USD", null);
+        Mockito.verify(history, Mockito.times(1)).record(Mockito.<Map<String, Map<String, BigDecimal>>>any());
+
+        holder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now());
+        crossRateService.getFilteredRates("BTC", List.of("USD"));
+        Mockito.verify(history, Mockito.times(2)).record(Mockito.<Map<String, Map<String, BigDecimal>>>any());
+    }
+
+    @Test
+    void testExchangeBatchFetchesOncePerSourceAndKeepsOrder() {
+        Map<String, Object> mockResponse = Map.of(
+                "bitcoin", Map.of("eth", 10.0, "usd", 20000.0)
+        );
+        when(responseSpec.bodyToFlux(DataBuffer.class)).thenReturn(body(mockResponse));
+
+        List<ExchangeRequest> requests = List.of(
+                exchangeRequest("BTC", List.of("ETH")),
+                exchangeRequest("XYZ", List.of("ETH")),
+                exchangeRequest("btc", List.of("USD")),
+                exchangeRequest("BTC", List.of("ABC")),
+                exchangeRequest(null, List.of("ETH")));
+
+        BatchExchangeResponse response = cryptoRateService.exchangeBatch(requests,
+                Map.of(4, Map.of("from", "Source currency 'from' cannot be null")));
+
+        List<BatchExchangeResponse.Item> items = response.getResults();
+        assertEquals(5, items.size());
+        assertEquals(BigDecimal.valueOf(10.0), items.get(0).getResponse().getConversions().get("ETH").getRate());
+        assertTrue(items.get(1).getErrors().containsKey("from"));
+        assertEquals(BigDecimal.valueOf(20000.0), items.get(2).getResponse().getConversions().get("USD").getRate());
+        assertTrue(items.get(3).getErrors().containsKey("to"));
+        assertEquals("Source currency 'from' cannot be null", items.get(4).getErrors().get("from"));
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, items.get(i).getIndex());
+        }
+        Mockito.verify(mockWebClient, Mockito.times(1)).get();
+    }
+
+    @Test
+    void testExchangeBatchTurnsUpstreamFailureIntoItemErrorsForThatSource() {
+        when(responseSpec.bodyToFlux(DataBuffer.class))
+                .thenReturn(body(Map.of("bitcoin", Map.of("eth", 10.0))))
+                .thenReturn(Flux.error(new UpstreamUnavailableException("Upstream circuit is open")));
+
+        BatchExchangeResponse response = cryptoRateService.exchangeBatch(List.of(
+                exchangeRequest("BTC", List.of("ETH")),
+                exchangeRequest("ETH", List.of("BTC")),
+                exchangeRequest("ETH", List.of("USD"))), Map.of());
+
+        List<BatchExchangeResponse.Item> items = response.getResults();
+        assertEquals(BigDecimal.valueOf(10.0), items.get(0).getResponse().getConversions().get("ETH").getRate());
+        assertNull(items.get(1).getResponse());
+        assertTrue(items.get(1).getErrors().get("from").contains("temporarily unavailable"));
+        assertTrue(items.get(2).getErrors().containsKey("from"));
+    }
+
+    @Test
+    void testStreamRatesEmitsOnlyChangedRates() {
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN)), Instant.now());
+
+        List<CurrencyRatesResponse> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = cryptoRateService.streamRates("btc", null).subscribe(received::add);
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", new BigDecimal("20000.0"), "ETH", BigDecimal.TEN)), Instant.now());
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(21000), "ETH", BigDecimal.TEN)), Instant.now());
+        subscription.dispose();
+
+        assertEquals(2, received.size());
+        assertEquals("BTC", received.get(0).getSource());
+        assertEquals(Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN), received.get(0).getRates());
+        assertEquals(Map.of("USD", BigDecimal.valueOf(21000)), received.get(1).getRates());
+        Mockito.verifyNoInteractions(mockWebClient);
+    }
+
+    @Test
+    void testStreamRatesAppliesFilters() {
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN)), Instant.now());
+
+        List<CurrencyRatesResponse> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = cryptoRateService.streamRates("BTC", List.of("eth")).subscribe(received::add);
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(21000), "ETH", BigDecimal.TEN)), Instant.now());
+        subscription.dispose();
+
+        assertEquals(1, received.size());
+        assertEquals(Map.of("ETH", BigDecimal.TEN), received.get(0).getRates());
+    }
+
+    @Test
+    void testStreamRatesRefreshesPeriodicallyWithoutSnapshot() throws Exception {
+        CryptoRateService uncached = CryptoRateServiceFixture.upstream(mockWebClient)
+                .rateCache(new RateCache(Duration.ZERO, Duration.ZERO, 0))
+                .snapshotHolder(snapshotHolder)
+                .build();
+        ReflectionTestUtils.setField(uncached, "streamRefreshInterval", Duration.ofMillis(20));
+        when(responseSpec.bodyToFlux(DataBuffer.class))
+                .thenReturn(body(Map.of("bitcoin", Map.of("usd", 20000.0))))
+                .thenReturn(body(Map.of("bitcoin", Map.of("usd", 21000.0))));
+
+        List<CurrencyRatesResponse> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = uncached.streamRates("BTC", List.of("USD")).subscribe(received::add);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        subscription.dispose();
+
+        assertEquals(2, received.size());
+        assertEquals(Map.of("USD", BigDecimal.valueOf(20000.0)), received.get(0).getRates());
+        assertEquals(Map.of("USD", BigDecimal.valueOf(21000.0)), received.get(1).getRates());
+    }
+
+    @Test
+    void testStreamRatesRejectsUnknownCurrency() {
+        assertThrows(IllegalArgumentException.class, () -> cryptoRateService.streamRates("DOGE", null));
+    }
+
+    private static Flux<DataBuffer> body(Object response) {
+        try {
+            return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new ObjectMapper().writeValueAsBytes(response)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExchangeRequest exchangeRequest(String from, List<String> to) {
+        ExchangeRequest request = new ExchangeRequest();
+        request.setFrom(from);
+        request.setTo(to);
+        request.setAmount(BigDecimal.valueOf(100));
+        return request;
+    }
 }
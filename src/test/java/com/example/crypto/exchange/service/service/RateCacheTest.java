@@ -0,0 +1,106 @@
+package com.example.crypto.exchange.service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateCacheTest {
+
+    private MutableClock clock;
+    private RateCache rateCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        rateCache = new RateCache(Duration.ofSeconds(10), Duration.ofSeconds(20), 2, clock);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testFreshEntryIsServedFromCache() {
+        RateCache.Key key = RateCache.Key.of("bitcoin", new String[]{"usd", "eth"});
+
+        assertEquals(BigDecimal.valueOf(1), rateCache.get(key, this::load).block().get("USD"));
+        assertEquals(BigDecimal.valueOf(1), rateCache.get(key, this::load).block().get("USD"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testKeyIgnoresOrderAndCase() {
+        assertEquals(RateCache.Key.of("Bitcoin", new String[]{"USD", "eth"}),
+                RateCache.Key.of("bitcoin", new String[]{"eth", "usd", "usd"}));
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileRefreshing() {
+        RateCache.Key key = RateCache.Key.of("bitcoin", new String[]{"usd"});
+        rateCache.get(key, this::load).block();
+
+        clock.advance(Duration.ofSeconds(15));
+        assertEquals(BigDecimal.valueOf(1), rateCache.get(key, this::load).block().get("USD"));
+        assertEquals(2, loads.get());
+
+        assertEquals(BigDecimal.valueOf(2), rateCache.get(key, this::load).block().get("USD"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEmptyRefreshDoesNotBlockLaterRevalidation() {
+        RateCache.Key key = RateCache.Key.of("bitcoin", new String[]{"usd"});
+        rateCache.get(key, this::load).block();
+
+        clock.advance(Duration.ofSeconds(15));
+        rateCache.get(key, () -> {
+            loads.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        assertEquals(2, loads.get());
+
+        assertEquals(BigDecimal.valueOf(1), rateCache.get(key, this::load).block().get("USD"));
+        assertEquals(3, loads.get());
+        assertEquals(BigDecimal.valueOf(3), rateCache.get(key, this::load).block().get("USD"));
+    }
+
+    @Test
+    void testEntryBeyondGraceIsReloaded() {
+        RateCache.Key key = RateCache.Key.of("bitcoin", new String[]{"usd"});
+        rateCache.get(key, this::load).block();
+
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals(BigDecimal.valueOf(2), rateCache.get(key, this::load).block().get("USD"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        RateCache.Key btc = RateCache.Key.of("bitcoin", new String[]{"usd"});
+        RateCache.Key eth = RateCache.Key.of("ethereum", new String[]{"usd"});
+        RateCache.Key usdt = RateCache.Key.of("tether", new String[]{"usd"});
+
+        rateCache.get(btc, this::load).block();
+        clock.advance(Duration.ofSeconds(1));
+        rateCache.get(eth, this::load).block();
+        clock.advance(Duration.ofSeconds(1));
+        rateCache.get(btc, this::load).block();
+        clock.advance(Duration.ofSeconds(1));
+        rateCache.get(usdt, this::load).block();
+
+        assertEquals(2, rateCache.size());
+        rateCache.get(btc, this::load).block();
+        assertEquals(3, loads.get());
+        rateCache.get(eth, this::load).block();
+        assertEquals(4, loads.get());
+    }
+
+    private Mono<Map<String, BigDecimal>> load() {
+        return Mono.fromSupplier(() -> Map.of("USD", BigDecimal.valueOf(loads.incrementAndGet())));
+    }
+}
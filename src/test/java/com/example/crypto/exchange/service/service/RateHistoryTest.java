@@ -0,0 +1,99 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.HistoryResponse;
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateHistoryTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private RateHistory history;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        history = new RateHistory(new int[]{3, 12, 24}, clock);
+    }
+
+    @Test
+    void testRatesWithinOneBucketFormOneCandle() {
+        record(100);
+        clock.advance(Duration.ofSeconds(20));
+        record(120);
+        clock.advance(Duration.ofSeconds(20));
+        record(90);
+        clock.advance(Duration.ofSeconds(19));
+        record(110);
+
+        List<HistoryResponse.Candle> candles = candles(RateHistory.Interval.ONE_MINUTE);
+
+        assertEquals(1, candles.size());
+        HistoryResponse.Candle candle = candles.get(0);
+        assertEquals(START, candle.getTime());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(candle.getOpen()));
+        assertEquals(0, BigDecimal.valueOf(120).compareTo(candle.getHigh()));
+        assertEquals(0, BigDecimal.valueOf(90).compareTo(candle.getLow()));
+        assertEquals(0, BigDecimal.valueOf(110).compareTo(candle.getClose()));
+    }
+
+    @Test
+    void testEveryResolutionIsUpdated() {
+        for (int i = 0; i < 6; i++) {
+            record(100 + i);
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        assertEquals(3, candles(RateHistory.Interval.ONE_MINUTE).size());
+        List<HistoryResponse.Candle> fiveMinutes = candles(RateHistory.Interval.FIVE_MINUTES);
+        assertEquals(2, fiveMinutes.size());
+        assertEquals(0, BigDecimal.valueOf(104).compareTo(fiveMinutes.get(0).getClose()));
+        assertEquals(1, candles(RateHistory.Interval.ONE_HOUR).size());
+    }
+
+    @Test
+    void testFullRingOverwritesOldestCandle() {
+        for (int i = 0; i < 5; i++) {
+            record(i);
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        List<HistoryResponse.Candle> candles = candles(RateHistory.Interval.ONE_MINUTE);
+
+        assertEquals(List.of(START.plusSeconds(120), START.plusSeconds(180), START.plusSeconds(240)),
+                candles.stream().map(HistoryResponse.Candle::getTime).toList());
+    }
+
+    @Test
+    void testRangeAndPairAreRespected() {
+        record(1);
+        clock.advance(Duration.ofMinutes(1));
+        record(2);
+
+        List<HistoryResponse.Candle> candles = history.candles(SupportedCurrency.BTC, SupportedCurrency.USD,
+                RateHistory.Interval.ONE_MINUTE, START.plusSeconds(30), START.plusSeconds(90));
+
+        assertEquals(1, candles.size());
+        assertEquals(START.plusSeconds(60), candles.get(0).getTime());
+        assertTrue(history.candles(SupportedCurrency.ETH, SupportedCurrency.USD,
+                RateHistory.Interval.ONE_MINUTE, START, clock.instant()).isEmpty());
+    }
+
+    private void record(double usd) {
+        history.record(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(usd))));
+    }
+
+    private List<HistoryResponse.Candle> candles(RateHistory.Interval interval) {
+        return history.candles(SupportedCurrency.BTC, SupportedCurrency.USD, interval, Instant.EPOCH, clock.instant());
+    }
+}
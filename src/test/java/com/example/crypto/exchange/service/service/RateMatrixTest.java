@@ -0,0 +1,49 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateMatrixTest {
+
+    @Test
+    void testCellsAreIndexedBySourceAndTarget() {
+        RateMatrix matrix = RateMatrix.of(Map.of(
+                "bitcoin", Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN),
+                "ethereum", Map.of("USD", BigDecimal.valueOf(2000)),
+                "dogecoin", Map.of("USD", BigDecimal.ONE)));
+
+        assertEquals(BigDecimal.TEN, matrix.rate(SupportedCurrency.BTC, SupportedCurrency.ETH));
+        assertEquals(BigDecimal.valueOf(2000), matrix.row(SupportedCurrency.ETH).get(SupportedCurrency.USD));
+        assertNull(matrix.rate(SupportedCurrency.ETH, SupportedCurrency.BTC));
+        assertNull(matrix.rate(SupportedCurrency.USDT, SupportedCurrency.USD));
+    }
+
+    @Test
+    void testRowToMapKeepsFilterOrderAndSkipsMissingRates() {
+        RateMatrix.Row row = RateMatrix.Row.of(Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN, "EUR", BigDecimal.ONE));
+
+        assertEquals(Map.of("USD", BigDecimal.valueOf(20000), "ETH", BigDecimal.TEN),
+                row.toMap(new SupportedCurrency[0]));
+        assertEquals(Map.of("ETH", BigDecimal.TEN),
+                row.toMap(new SupportedCurrency[]{SupportedCurrency.ETH, SupportedCurrency.USDT}));
+    }
+
+    @Test
+    void testContentDigestDependsOnlyOnRenderedRates() {
+        SupportedCurrency[] all = new SupportedCurrency[0];
+        RateMatrix.Row row = RateMatrix.Row.of(Map.of("USD", new BigDecimal("20000.5"), "ETH", BigDecimal.TEN));
+        RateMatrix.Row same = RateMatrix.of(Map.of("bitcoin", Map.of("ETH", BigDecimal.TEN, "USD", new BigDecimal("20000.5"))))
+                .row(SupportedCurrency.BTC);
+
+        assertEquals(row.contentDigest(all), same.contentDigest(all));
+        assertEquals(22, row.contentDigest(all).length());
+        assertNotEquals(row.contentDigest(all),
+                RateMatrix.Row.of(Map.of("USD", new BigDecimal("20000.50"), "ETH", BigDecimal.TEN)).contentDigest(all));
+        assertNotEquals(row.contentDigest(all), row.contentDigest(new SupportedCurrency[]{SupportedCurrency.USD}));
+    }
+}
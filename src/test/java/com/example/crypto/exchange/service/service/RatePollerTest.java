@@ -0,0 +1,79 @@
+package com.example.crypto.exchange.service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatePollerTest {
+
+    private CryptoRateService cryptoRateService;
+    private RateSnapshotHolder snapshotHolder;
+    private RatePoller ratePoller;
+
+    @BeforeEach
+    void setUp() {
+        cryptoRateService = Mockito.mock(CryptoRateService.class);
+        snapshotHolder = new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24));
+        ratePoller = new RatePoller(cryptoRateService, snapshotHolder,
+                new CrossRateEngine(false, "usd", 18, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void testPollPublishesVersionedSnapshotFromSingleCall() {
+        when(cryptoRateService.fetchAllRates(any(), any()))
+                .thenReturn(Mono.just(Map.of("bitcoin", Map.of("USD", BigDecimal.valueOf(20000)))));
+
+        ratePoller.poll();
+        ratePoller.poll();
+
+        RateSnapshot snapshot = snapshotHolder.current();
+        assertEquals(2, snapshot.version());
+        assertFalse(snapshot.isStale());
+        assertEquals(BigDecimal.valueOf(20000), snapshot.ratesFor("bitcoin").get("USD"));
+        verify(cryptoRateService, times(2)).fetchAllRates(any(), any());
+    }
+
+    @Test
+    void testFailedPollKeepsPreviousSnapshot() {
+        when(cryptoRateService.fetchAllRates(any(), any()))
+                .thenReturn(Mono.just(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE))))
+                .thenReturn(Mono.error(new IllegalStateException("upstream down")));
+
+        ratePoller.poll();
+        ratePoller.poll();
+
+        assertEquals(1, snapshotHolder.current().version());
+        assertEquals(BigDecimal.ONE, snapshotHolder.current().ratesFor("bitcoin").get("USD"));
+    }
+
+    @Test
+    void testCrossRatePollDerivesEverySourceFromPivotQuotes() {
+        ratePoller = new RatePoller(cryptoRateService, snapshotHolder,
+                new CrossRateEngine(true, "usd", 18, RoundingMode.HALF_EVEN));
+        when(cryptoRateService.fetchAllRates(any(), eq(new String[]{"usd"})))
+                .thenReturn(Mono.just(Map.of(
+                        "bitcoin", Map.of("USD", BigDecimal.valueOf(20000)),
+                        "ethereum", Map.of("USD", BigDecimal.valueOf(2000)),
+                        "tether", Map.of("USD", BigDecimal.ONE))));
+
+        ratePoller.poll();
+
+        RateSnapshot snapshot = snapshotHolder.current();
+        assertEquals(0, BigDecimal.TEN.compareTo(snapshot.ratesFor("bitcoin").get("ETH")));
+        assertEquals(0, new BigDecimal("0.00005").compareTo(snapshot.ratesFor("usd").get("BTC")));
+        verify(cryptoRateService, times(1)).fetchAllRates(any(), any());
+    }
+}
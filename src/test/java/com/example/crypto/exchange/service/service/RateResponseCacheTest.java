@@ -0,0 +1,83 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.model.SupportedCurrency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateResponseCacheTest {
+
+    private RateSnapshotHolder snapshotHolder;
+    private RateResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        snapshotHolder = new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24));
+        cache = new RateResponseCache(new ObjectMapper(), snapshotHolder, 2);
+    }
+
+    @Test
+    void testDigestsAndRendersOncePerGeneration() {
+        RateResponseCache.Response first = cache.get(lookup(SupportedCurrency.BTC, "s1"));
+        RateResponseCache.Response second = cache.get(lookup(SupportedCurrency.BTC, "s1"));
+
+        assertSame(first, second);
+        assertSame(first.body(), second.body());
+        assertEquals("{\"source\":\"BTC\",\"rates\":{\"USD\":20000}}", first.body().rawValue().toString());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testNewGenerationWithSameRatesKeepsETag() {
+        RateResponseCache.Response first = cache.get(lookup(SupportedCurrency.BTC, "s1"));
+        RateResponseCache.Response second = cache.get(lookup(SupportedCurrency.BTC, "c2"));
+
+        assertNotSame(first, second);
+        assertEquals(first.etag(), second.etag());
+    }
+
+    @Test
+    void testRatesWithoutGenerationAreNotCached() {
+        cache.get(lookup(SupportedCurrency.BTC, null));
+        cache.get(lookup(SupportedCurrency.BTC, null));
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        cache.get(lookup(SupportedCurrency.BTC, "s1"));
+        cache.get(lookup(SupportedCurrency.ETH, "s1"));
+        cache.get(lookup(SupportedCurrency.BTC, "s1"));
+        cache.get(lookup(SupportedCurrency.USDT, "s1"));
+
+        assertEquals(2, cache.size());
+        cache.get(lookup(SupportedCurrency.BTC, "s1"));
+        assertEquals(2, cache.getHitCount());
+        cache.get(lookup(SupportedCurrency.ETH, "s1"));
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void testNewSnapshotDropsEntries() {
+        cache.get(lookup(SupportedCurrency.BTC, "s1"));
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.ONE)), Instant.now());
+
+        assertEquals(0, cache.size());
+    }
+
+    private static RateLookup lookup(SupportedCurrency source, String generation) {
+        return new RateLookup(source, new SupportedCurrency[0],
+                RateMatrix.Row.of(Map.of("USD", BigDecimal.valueOf(20000))), generation, null);
+    }
+}
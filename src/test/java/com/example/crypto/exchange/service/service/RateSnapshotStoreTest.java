@@ -0,0 +1,100 @@
+package com.example.crypto.exchange.service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSnapshotStoreTest {
+
+    private static final Map<String, Map<String, BigDecimal>> RATES = Map.of(
+            "bitcoin", Map.of("USD", new BigDecimal("64123.456789"), "ETH", new BigDecimal("17.25")),
+            "ethereum", Map.of("USD", new BigDecimal("3100"), "BTC", new BigDecimal("0.0000483")));
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private MutableClock clock;
+    private RateSnapshotHolder holder;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("rates.snapshot");
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        holder = new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24));
+    }
+
+    @Test
+    void testRatesSurviveRoundTripExactly() throws IOException {
+        Instant fetchedAt = Instant.parse("2024-01-01T00:00:00Z");
+        RateSnapshotStore.write(file, RATES, fetchedAt);
+
+        RateSnapshotStore.Stored stored = store(holder).load();
+
+        assertEquals(fetchedAt, stored.fetchedAt());
+        assertEquals(RATES, stored.rates());
+    }
+
+    @Test
+    void testSnapshotFileIsRestoredOnStartup() throws IOException {
+        RateSnapshotStore.write(file, RATES, clock.instant().minusSeconds(600));
+
+        store(holder);
+
+        RateSnapshot restored = holder.current();
+        assertNotNull(restored);
+        assertEquals(clock.instant().minusSeconds(600), restored.fetchedAt());
+        assertTrue(restored.isStale());
+        assertTrue(restored.warmStart());
+        assertEquals(new BigDecimal("17.25"), restored.ratesFor("bitcoin").get("ETH"));
+    }
+
+    @Test
+    void testSnapshotOlderThanMaxAgeIsIgnored() throws IOException {
+        RateSnapshotStore.write(file, RATES, clock.instant().minus(Duration.ofHours(2)));
+
+        store(holder);
+
+        assertNull(holder.current());
+    }
+
+    @Test
+    void testCorruptFileIsIgnored() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3});
+
+        store(holder);
+
+        assertNull(holder.current());
+    }
+
+    @Test
+    void testPublishedSnapshotsAreWrittenAtMostOncePerInterval() {
+        store(holder);
+
+        holder.publish(RATES, clock.instant());
+        assertTrue(Files.exists(file));
+        Instant firstWrite = store(new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24))).load().fetchedAt();
+
+        clock.advance(Duration.ofSeconds(10));
+        holder.publish(RATES, clock.instant());
+        assertEquals(firstWrite, store(new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24))).load().fetchedAt());
+
+        clock.advance(Duration.ofSeconds(60));
+        holder.publish(RATES, clock.instant());
+        assertEquals(clock.instant(), store(new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24))).load().fetchedAt());
+    }
+
+    private RateSnapshotStore store(RateSnapshotHolder holder) {
+        return new RateSnapshotStore(holder, true, true, file, Duration.ofSeconds(60), Duration.ofHours(1), clock);
+    }
+}
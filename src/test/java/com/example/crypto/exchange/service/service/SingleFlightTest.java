@@ -0,0 +1,126 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private CoinGeckoStubServer stub;
+    private SingleFlight singleFlight;
+    private CryptoRateService cryptoRateService;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = CoinGeckoStubServer.start().respondWith("{\"bitcoin\":{\"usd\":20000.0}}");
+
+        WebClient webClient = WebClient.builder().baseUrl(stub.baseUrl()).build();
+
+        singleFlight = new SingleFlight();
+        cryptoRateService = CryptoRateServiceFixture.upstream(webClient)
+                .rateCache(new RateCache(Duration.ZERO, Duration.ZERO, 0))
+                .singleFlight(singleFlight)
+                .build();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        stub.close();
+    }
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneUpstreamRequest() throws Exception {
+        stub.holdResponses();
+
+        List<Future<Map<String, BigDecimal>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> cryptoRateService.getRates("bitcoin", new String[]{"usd"})));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        stub.releaseResponses();
+
+        for (Future<Map<String, BigDecimal>> result : results) {
+            assertEquals(BigDecimal.valueOf(20000.0), result.get(5, TimeUnit.SECONDS).get("USD"));
+        }
+        assertEquals(1, stub.hits());
+        assertEquals(CALLERS - 1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testSequentialCallsAreNotCoalesced() {
+        cryptoRateService.getRates("bitcoin", new String[]{"usd"});
+        cryptoRateService.getRates("bitcoin", new String[]{"usd"});
+
+        assertEquals(2, stub.hits());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void testInteractiveCallersDoNotJoinBackgroundCalls() {
+        List<UpstreamScheduler.Priority> started = new CopyOnWriteArrayList<>();
+        Sinks.One<String> response = Sinks.one();
+        Supplier<Mono<String>> call = () -> Mono.deferContextual(context -> {
+            started.add(UpstreamScheduler.priorityOf(context));
+            return response.asMono();
+        });
+
+        singleFlight.execute("key", call)
+                .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                .subscribe();
+        singleFlight.execute("key", call).subscribe();
+        singleFlight.execute("key", call)
+                .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                .subscribe();
+        response.tryEmitValue("rates");
+
+        assertEquals(List.of(UpstreamScheduler.Priority.BACKGROUND, UpstreamScheduler.Priority.INTERACTIVE), started);
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testKeyIsReleasedOnceEveryCallerCancelled() {
+        List<String> started = new CopyOnWriteArrayList<>();
+        Supplier<Mono<String>> call = () -> Mono.fromRunnable(() -> started.add("call")).then(Mono.never());
+
+        Disposable first = singleFlight.execute("key", call).subscribe();
+        Disposable second = singleFlight.execute("key", call).subscribe();
+        first.dispose();
+        assertEquals(1, singleFlight.getInFlightCount());
+
+        second.dispose();
+        assertEquals(0, singleFlight.getInFlightCount());
+
+        singleFlight.execute("key", call).subscribe().dispose();
+        assertEquals(List.of("call", "call"), started);
+    }
+}
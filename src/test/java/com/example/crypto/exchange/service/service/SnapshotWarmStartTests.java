@@ -0,0 +1,62 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SnapshotWarmStartTests {
+
+	static CoinGeckoStubServer stub;
+
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@DynamicPropertySource
+	static void restoredSnapshotAndFailingUpstream(DynamicPropertyRegistry registry) throws IOException {
+		Path file = Files.createTempDirectory("rates").resolve("rates.snapshot");
+		RateSnapshotStore.write(file, Map.of("bitcoin", Map.of("USD", new BigDecimal("61234.5"))),
+				Instant.now().minus(Duration.ofMinutes(10)));
+		stub = CoinGeckoStubServer.start();
+		stub.respondWithStatus(500);
+		registry.add("app.cryptoApi.baseUrl", stub::baseUrl);
+		registry.add("app.cryptoApi.poller.enabled", () -> "true");
+		registry.add("app.cryptoApi.snapshotFile.enabled", () -> "true");
+		registry.add("app.cryptoApi.snapshotFile.path", file::toString);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		stub.close();
+	}
+
+	@Test
+	void servesTheRestoredSnapshotUncacheableWhileTheFirstLiveRefreshFails() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/currencies/BTC?filter[]=USD", String.class);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getBody().contains("61234.5"), response.getBody());
+		assertEquals(CacheControl.noCache().getHeaderValue(), response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+	}
+
+}
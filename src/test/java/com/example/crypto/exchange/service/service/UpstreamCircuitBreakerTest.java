@@ -0,0 +1,71 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamCircuitBreakerTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testOpensAfterConsecutiveFailuresAndFailsFast() {
+        UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(2, Duration.ofSeconds(30));
+
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, breaker.getState());
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, breaker.getState());
+
+        assertThrows(UpstreamUnavailableException.class, () -> breaker.protect(succeeding()).block());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(2, Duration.ofSeconds(30));
+
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+        assertEquals("ok", breaker.protect(succeeding()).block());
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenTrialClosesOrReopens() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        UpstreamCircuitBreaker breaker = new UpstreamCircuitBreaker(1, Duration.ofSeconds(30), clock);
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+
+        clock.advance(Duration.ofSeconds(31));
+        assertThrows(IllegalStateException.class, () -> breaker.protect(failing()).block());
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(UpstreamUnavailableException.class, () -> breaker.protect(succeeding()).block());
+
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals("ok", breaker.protect(succeeding()).block());
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(3, calls.get());
+    }
+
+    private Mono<String> failing() {
+        return Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("upstream down");
+        });
+    }
+
+    private Mono<String> succeeding() {
+        return Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.config.WebClientConfig;
+import com.example.crypto.exchange.service.exception.UpstreamThrottledException;
+import com.example.crypto.exchange.service.exception.UpstreamUnavailableException;
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamClientTest {
+
+    private CoinGeckoStubServer stub;
+    private ConnectionProvider connectionProvider;
+    private UpstreamCircuitBreaker circuitBreaker;
+    private RateSnapshotHolder snapshotHolder;
+    private CryptoRateService cryptoRateService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = CoinGeckoStubServer.start();
+
+        WebClientConfig config = new WebClientConfig();
+        connectionProvider = config.cryptoApiConnectionProvider(4, 16, Duration.ofSeconds(1),
+                Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofSeconds(10));
+        WebClient webClient = config.webClient(WebClient.builder(), connectionProvider, stub.baseUrl(),
+                Duration.ofSeconds(1), Duration.ofMillis(300));
+
+        circuitBreaker = new UpstreamCircuitBreaker(2, Duration.ofSeconds(30));
+        snapshotHolder = new RateSnapshotHolder(Duration.ofSeconds(30), new RateHistory(60, 12, 24));
+        cryptoRateService = CryptoRateServiceFixture.upstream(webClient)
+                .rateCache(new RateCache(Duration.ofMillis(1), Duration.ZERO, 16))
+                .snapshotHolder(snapshotHolder)
+                .circuitBreaker(circuitBreaker)
+                .build();
+        ReflectionTestUtils.setField(cryptoRateService, "retryMinBackoff", Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void testRequestsGoToConfiguredBaseUrl() {
+        Map<String, BigDecimal> rates = cryptoRateService.getRates("bitcoin", new String[]{"usd"});
+
+        assertEquals(BigDecimal.valueOf(1.0), rates.get("USD"));
+        assertEquals(1, stub.hits());
+    }
+
+    @Test
+    void testServerErrorsAreRetried() {
+        stub.respondWithStatus(503);
+
+        assertThrows(RuntimeException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+        assertEquals(3, stub.hits());
+    }
+
+    @Test
+    void testResponseTimeoutFailsTheCall() {
+        stub.withLatency(Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(cryptoRateService, "retryMaxAttempts", 0);
+
+        assertThrows(WebClientRequestException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+    }
+
+    @Test
+    void testOpenCircuitServesLastKnownRatesWithoutCallingUpstream() throws Exception {
+        cryptoRateService.getFilteredRates("BTC", null);
+        Thread.sleep(5);
+        stub.respondWithStatus(500);
+        ReflectionTestUtils.setField(cryptoRateService, "retryMaxAttempts", 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(BigDecimal.valueOf(1.0),
+                    cryptoRateService.getFilteredRates("BTC", null).getRates().get("USD"));
+        }
+
+        assertEquals(UpstreamCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(3, stub.hits());
+    }
+
+    @Test
+    void testOpenCircuitWithoutLastKnownRatesFailsFast() {
+        stub.respondWithStatus(500);
+        ReflectionTestUtils.setField(cryptoRateService, "retryMaxAttempts", 0);
+
+        assertThrows(RuntimeException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+        assertThrows(RuntimeException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+        assertThrows(UpstreamUnavailableException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+        assertEquals(2, stub.hits());
+    }
+
+    @Test
+    void testLastKnownSnapshotIsOnlyServedWithinMaxAge() {
+        stub.respondWithStatus(500);
+        ReflectionTestUtils.setField(cryptoRateService, "retryMaxAttempts", 0);
+        ReflectionTestUtils.setField(cryptoRateService, "lastKnownMaxAge", Duration.ofHours(1));
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.TEN)), Instant.now().minus(Duration.ofHours(2)));
+        assertThrows(RuntimeException.class, () -> cryptoRateService.getFilteredRates("BTC", null));
+
+        snapshotHolder.publish(Map.of("bitcoin", Map.of("USD", BigDecimal.TEN)), Instant.now().minus(Duration.ofMinutes(5)));
+        assertEquals(BigDecimal.TEN, cryptoRateService.getFilteredRates("BTC", null).getRates().get("USD"));
+    }
+
+    @Test
+    void testRestoredSnapshotIsServedUncacheableWhileUpstreamIsDown() {
+        stub.respondWithStatus(500);
+        ReflectionTestUtils.setField(cryptoRateService, "retryMaxAttempts", 0);
+        snapshotHolder.restore(Map.of("bitcoin", Map.of("USD", BigDecimal.TEN)), Instant.now().minus(Duration.ofMinutes(5)), false);
+
+        VersionedRates rates = cryptoRateService.getVersionedRates("BTC", null);
+
+        assertEquals(BigDecimal.TEN, rates.toResponse().getRates().get("USD"));
+        assertEquals(CacheControl.noCache().getHeaderValue(), rates.cacheControl().getHeaderValue());
+        assertEquals(1, stub.hits());
+    }
+
+    @Test
+    void testRateLimitedUpstreamIsThrottledWithoutOpeningCircuit() {
+        stub.withRateLimitRate(1.0, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(UpstreamThrottledException.class, () -> cryptoRateService.getRates("bitcoin", new String[]{"usd"}));
+        }
+
+        assertEquals(1, stub.hits());
+        assertEquals(UpstreamCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testLargeRequestIsSplitIntoBoundedParallelCalls() {
+        ReflectionTestUtils.setField(cryptoRateService, "batchMaxIds", 2);
+        ReflectionTestUtils.setField(cryptoRateService, "batchMaxVsCurrencies", 3);
+        ReflectionTestUtils.setField(cryptoRateService, "batchConcurrency", 2);
+        stub.withLatency(Duration.ofMillis(20));
+        String[] ids = {"coin-a", "coin-b", "coin-c", "coin-d", "coin-e"};
+        String[] vs = {"v1", "v2", "v3", "v4", "v5", "v6", "v7"};
+
+        Map<String, Map<String, BigDecimal>> rates = cryptoRateService.fetchAllRates(ids, vs).block();
+
+        assertEquals(9, stub.hits());
+        assertTrue(stub.maxInFlight() <= 2);
+        assertEquals(5, rates.size());
+        for (String id : ids) {
+            assertEquals(7, rates.get(id).size());
+            assertEquals(BigDecimal.valueOf(1.0), rates.get(id).get("V7"));
+        }
+    }
+}
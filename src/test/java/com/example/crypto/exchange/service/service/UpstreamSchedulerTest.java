@@ -0,0 +1,69 @@
+package com.example.crypto.exchange.service.service;
+
+import com.example.crypto.exchange.service.exception.UpstreamThrottledException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamSchedulerTest {
+
+    @Test
+    void testBurstIsAdmittedAndExcessIsShed() {
+        UpstreamScheduler scheduler = new UpstreamScheduler(0.1, 2, 10, Duration.ofMillis(500), Duration.ofSeconds(1));
+
+        assertEquals("ok", scheduler.schedule(() -> Mono.just("ok")).block());
+        assertEquals("ok", scheduler.schedule(() -> Mono.just("ok")).block());
+        assertThrows(UpstreamThrottledException.class, () -> scheduler.schedule(() -> Mono.just("ok")).block());
+        assertEquals(1, scheduler.getShedCount());
+    }
+
+    @Test
+    void testInteractiveCallsAreServedBeforeBackgroundCalls() throws Exception {
+        UpstreamScheduler scheduler = new UpstreamScheduler(20, 1, 10, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        scheduler.schedule(() -> Mono.just("warm")).block();
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> background = scheduler
+                .schedule(() -> Mono.fromSupplier(() -> record(order, "background")))
+                .contextWrite(UpstreamScheduler.withPriority(UpstreamScheduler.Priority.BACKGROUND))
+                .toFuture();
+        CompletableFuture<String> interactive = scheduler
+                .schedule(() -> Mono.fromSupplier(() -> record(order, "interactive")))
+                .toFuture();
+        assertEquals(1, scheduler.getQueueDepth(UpstreamScheduler.Priority.BACKGROUND));
+        assertEquals(1, scheduler.getQueueDepth(UpstreamScheduler.Priority.INTERACTIVE));
+
+        CompletableFuture.allOf(background, interactive).get(2, TimeUnit.SECONDS);
+        assertEquals(List.of("interactive", "background"), order);
+    }
+
+    @Test
+    void testTooManyRequestsPausesCallsForRetryAfter() {
+        UpstreamScheduler scheduler = new UpstreamScheduler(100, 10, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+
+        UpstreamThrottledException error = assertThrows(UpstreamThrottledException.class, () -> scheduler
+                .schedule(() -> Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers,
+                        new byte[0], null)))
+                .block());
+        assertEquals(Duration.ofSeconds(30), error.getRetryAfter());
+        assertEquals(1, scheduler.getRateLimitedCount());
+
+        assertThrows(UpstreamThrottledException.class, () -> scheduler.schedule(() -> Mono.just("ok")).block());
+    }
+
+    private static String record(List<String> order, String name) {
+        order.add(name);
+        return name;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.crypto.exchange.service.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for CoinGecko's {@code /api/v3/simple/price} endpoint used by tests.
+ * <p>
+ * Unless a fixed body is set, every requested id is quoted at 1.0 against every requested vs-currency. Latency,
+ * uniform jitter on top of it, and a share of 503 and 429 responses can be configured to mimic a degraded upstream.
+ */
+public class CoinGeckoStubServer implements AutoCloseable {
+
+    public static final String PRICE_PATH = "/api/v3/simple/price";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile String body;
+    private volatile int status = 200;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile double rateLimitRate;
+    private volatile Duration retryAfter = Duration.ofSeconds(1);
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    private CoinGeckoStubServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static CoinGeckoStubServer start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CoinGeckoStubServer stub = new CoinGeckoStubServer(server, executor);
+        server.createContext(PRICE_PATH, stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + PRICE_PATH;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public CoinGeckoStubServer respondWith(String json) {
+        this.body = json;
+        return this;
+    }
+
+    public CoinGeckoStubServer respondWithStatus(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public CoinGeckoStubServer withLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public CoinGeckoStubServer withJitter(Duration jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Answers this fraction of requests with 503 Service Unavailable.
+     */
+    public CoinGeckoStubServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Answers this fraction of requests with 429 Too Many Requests and a {@code Retry-After} header.
+     */
+    public CoinGeckoStubServer withRateLimitRate(double rateLimitRate, Duration retryAfter) {
+        this.rateLimitRate = rateLimitRate;
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+    public void holdResponses() {
+        gate = new CountDownLatch(1);
+    }
+
+    public void releaseResponses() {
+        gate.countDown();
+    }
+
+    public int hits() {
+        return hits.get();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+            long delayMillis = latency.toMillis();
+            if (!jitter.isZero()) {
+                delayMillis += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+            }
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                exchange.getResponseHeaders().add("Retry-After", Long.toString(retryAfter.toSeconds()));
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            int status = roll < rateLimitRate + errorRate ? 503 : this.status;
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            String json = body != null ? body : quoteAll(exchange.getRequestURI().getRawQuery());
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static String quoteAll(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        StringJoiner coins = new StringJoiner(",", "{", "}");
+        for (String id : params.getOrDefault("ids", "").split(",")) {
+            StringJoiner quotes = new StringJoiner(",", "{", "}");
+            for (String vs : params.getOrDefault("vs_currencies", "").split(",")) {
+                quotes.add("\"" + vs + "\":1.0");
+            }
+            coins.add("\"" + id + "\":" + quotes);
+        }
+        return coins.toString();
+    }
+
+    @Override
+    public void close() {
+        releaseResponses();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
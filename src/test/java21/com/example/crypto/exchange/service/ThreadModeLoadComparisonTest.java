@@ -0,0 +1,97 @@
+package com.example.crypto.exchange.service;
+
+import com.example.crypto.exchange.service.stub.CoinGeckoStubServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the blocking MVC stack against a slow stub upstream, once on Tomcat's platform thread pool and once on
+ * virtual threads, and compares how many upstream calls each mode keeps in flight at the same time.
+ */
+class ThreadModeLoadComparisonTest {
+
+    private static final int PLATFORM_THREADS = 20;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofSeconds(1);
+    private static final String[] SYMBOLS = {"BTC", "ETH", "USD", "USDT"};
+
+    @Test
+    void virtualThreadsRaiseTheConcurrencyCeiling() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%-10s %10s %14s %12s%n", "mode", "requests", "max in-flight", "elapsed ms");
+        System.out.printf("%-10s %10d %14d %12d%n", "platform", platform.requests, platform.maxInFlight, platform.elapsedMillis);
+        System.out.printf("%-10s %10d %14d %12d%n", "virtual", virtual.requests, virtual.maxInFlight, virtual.elapsedMillis);
+
+        assertTrue(platform.maxInFlight <= PLATFORM_THREADS);
+        assertTrue(virtual.maxInFlight > PLATFORM_THREADS);
+        assertTrue(virtual.elapsedMillis < platform.elapsedMillis);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (CoinGeckoStubServer stub = CoinGeckoStubServer.start().withLatency(UPSTREAM_LATENCY)) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(CryptoExchangeServiceApplication.class)
+                    .run("--server.port=0",
+                            "--app.cryptoApi.baseUrl=" + stub.baseUrl(),
+                            "--app.cryptoApi.http.maxConnections=100",
+                            "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                            "--app.threads.virtual=" + virtualThreads,
+                            "--app.cryptoApi.cache.ttl=0s",
+                            "--logging.level.com.example.crypto.exchange.service=WARN");
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<URI> uris = distinctRateQueries(port);
+
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                long start = System.nanoTime();
+                List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+                for (URI uri : uris) {
+                    responses.add(client.sendAsync(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(),
+                            HttpResponse.BodyHandlers.ofString()));
+                }
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    assertEquals(200, response.get().statusCode());
+                }
+                long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                return new Result(uris.size(), stub.maxInFlight(), elapsedMillis);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Every source combined with every non-empty filter subset, so no two requests share a cache or single-flight key.
+     */
+    private static List<URI> distinctRateQueries(int port) {
+        List<URI> uris = new ArrayList<>();
+        for (String source : SYMBOLS) {
+            for (int mask = 1; mask < (1 << SYMBOLS.length); mask++) {
+                StringBuilder query = new StringBuilder();
+                for (int i = 0; i < SYMBOLS.length; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        query.append(query.isEmpty() ? "?" : "&").append("filter%5B%5D=").append(SYMBOLS[i]);
+                    }
+                }
+                uris.add(URI.create("http://localhost:" + port + "/currencies/" + source + query));
+            }
+        }
+        return uris;
+    }
+
+    private record Result(int requests, int maxInFlight, long elapsedMillis) {
+    }
+}